@@ -1,7 +1,9 @@
 package egabank.api.devoir;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication
+@EnableScheduling
 public class DevoirApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,231 @@
+package egabank.api.devoir.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Nombre de requêtes SQL et temps JDBC par requête HTTP (voir CompteurRequetesSql).
+ * Journalise les requêtes HTTP au-delà de log-threshold requêtes SQL et les N+1 probables
+ * (même SQL répété au moins n-plus-one-threshold fois). En dev, ajoute les en-têtes X-SQL-Count
+ * et X-SQL-Time-Ms : la réponse est alors retenue (jusqu'à header.buffer-kb) car la sérialisation
+ * JSON déclenche elle-même des chargements.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class CompteurRequetesFilter extends OncePerRequestFilter {
+    public static final String ATTRIBUT_MESURE = CompteurRequetesFilter.class.getName() + ".MESURE";
+    public static final String ENTETE_REQUETES = "X-SQL-Count";
+    public static final String ENTETE_DUREE = "X-SQL-Time-Ms";
+    private static final Logger log = LoggerFactory.getLogger(CompteurRequetesFilter.class);
+
+    private final boolean entete;
+    private final int tamponMax;
+    private final int seuilRequetes;
+    private final int seuilRepetitions;
+
+    public CompteurRequetesFilter(
+            @Value("${egabank.sql.header.enabled:false}") boolean entete,
+            @Value("${egabank.sql.header.buffer-kb:512}") int tamponKb,
+            @Value("${egabank.sql.log-threshold:50}") int seuilRequetes,
+            @Value("${egabank.sql.n-plus-one-threshold:10}") int seuilRepetitions) {
+        this.entete = entete;
+        this.tamponMax = tamponKb * 1024;
+        this.seuilRequetes = seuilRequetes;
+        this.seuilRepetitions = seuilRepetitions;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompteurRequetesSql.Mesure mesure = CompteurRequetesSql.demarrer();
+        request.setAttribute(ATTRIBUT_MESURE, mesure);
+        ReponseRetenue retenue = entete ? new ReponseRetenue(response, tamponMax) : null;
+        try {
+            filterChain.doFilter(request, retenue != null ? retenue : response);
+        } finally {
+            CompteurRequetesSql.arreter();
+            if (retenue != null) {
+                // Flux asynchrone : seule la partie synchrone est comptée
+                retenue.liberer(mesure);
+            }
+            journaliser(request, mesure);
+        }
+    }
+
+    private void journaliser(HttpServletRequest request, CompteurRequetesSql.Mesure mesure) {
+        if (mesure.getRequetes() >= seuilRequetes) {
+            log.warn("{} {} : {} requêtes SQL, {} ms en JDBC",
+                request.getMethod(), request.getRequestURI(), mesure.getRequetes(), mesure.getDureeMs());
+        }
+        if (mesure.getRepetitions() >= seuilRepetitions) {
+            String sql = mesure.getPlusRepetee();
+            log.warn("{} {} : N+1 probable, {} fois : {}", request.getMethod(), request.getRequestURI(),
+                mesure.getRepetitions(), sql.length() > 200 ? sql.substring(0, 200) + "..." : sql);
+        }
+    }
+
+    // Retient le corps tant qu'il tient dans le tampon, pour pouvoir poser les en-têtes à la fin
+    private static final class ReponseRetenue extends HttpServletResponseWrapper {
+        private final int tamponMax;
+        private ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        private ServletOutputStream flux;
+        private PrintWriter writer;
+
+        ReponseRetenue(HttpServletResponse response, int tamponMax) {
+            super(response);
+            this.tamponMax = tamponMax;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (flux == null) {
+                flux = new FluxRetenu();
+            }
+            return flux;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (tampon == null) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (tampon == null) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (tampon == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            synchronized (this) {
+                if (tampon != null) {
+                    tampon.reset();
+                    return;
+                }
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            synchronized (this) {
+                if (tampon != null) {
+                    tampon.reset();
+                }
+            }
+            super.reset();
+        }
+
+        synchronized void liberer(CompteurRequetesSql.Mesure mesure) throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (tampon == null) {
+                return;
+            }
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!response.isCommitted()) {
+                response.setHeader(ENTETE_REQUETES, String.valueOf(mesure.getRequetes()));
+                response.setHeader(ENTETE_DUREE, String.valueOf(mesure.getDureeMs()));
+            }
+            vider();
+        }
+
+        // Au-delà du tampon (gros export) ou à la libération : le corps part directement
+        private void vider() throws IOException {
+            ByteArrayOutputStream contenu = tampon;
+            tampon = null;
+            if (contenu.size() > 0) {
+                contenu.writeTo(getResponse().getOutputStream());
+            }
+        }
+
+        private final class FluxRetenu extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (ReponseRetenue.this) {
+                    if (tampon != null && tampon.size() + len <= tamponMax) {
+                        tampon.write(b, off, len);
+                        return;
+                    }
+                    if (tampon != null) {
+                        vider();
+                    }
+                }
+                getResponse().getOutputStream().write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (ReponseRetenue.this) {
+                    if (tampon != null) {
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (ReponseRetenue.this) {
+                    if (tampon != null) {
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new IllegalStateException("Écriture non bloquante non prise en charge");
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package egabank.api.devoir.config;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compte les requêtes SQL émises par Hibernate sur le thread courant, entre demarrer() et arreter().
+ * Branché par configuration (application.properties) : hibernate.session_factory.statement_inspector
+ * pour le nombre de requêtes, hibernate.session.events.auto (Ecouteur) pour le temps passé en JDBC.
+ * Les requêtes d'un autre thread (flux asynchrones, pools) et celles de JdbcTemplate ne sont pas comptées.
+ */
+public class CompteurRequetesSql implements StatementInspector {
+    private static final ThreadLocal<Mesure> COURANTE = new ThreadLocal<>();
+
+    public static Mesure demarrer() {
+        Mesure mesure = new Mesure();
+        COURANTE.set(mesure);
+        return mesure;
+    }
+
+    public static Mesure arreter() {
+        Mesure mesure = COURANTE.get();
+        COURANTE.remove();
+        return mesure;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Mesure mesure = COURANTE.get();
+        if (mesure != null) {
+            mesure.compter(sql);
+        }
+        return sql;
+    }
+
+    public static final class Mesure {
+        private int requetes;
+        private long dureeNanos;
+        private long debutNanos;
+        // Même SQL répété : une requête par élément d'une collection chargée à la demande (N+1)
+        private final Map<String, Integer> parSql = new HashMap<>();
+        private String plusRepetee;
+        private int repetitions;
+
+        private void compter(String sql) {
+            requetes++;
+            int n = parSql.merge(sql, 1, Integer::sum);
+            if (n > repetitions) {
+                repetitions = n;
+                plusRepetee = sql;
+            }
+        }
+
+        public int getRequetes() {
+            return requetes;
+        }
+
+        public long getDureeMs() {
+            return dureeNanos / 1_000_000;
+        }
+
+        public String getPlusRepetee() {
+            return plusRepetee;
+        }
+
+        public int getRepetitions() {
+            return repetitions;
+        }
+    }
+
+    // Instancié par Hibernate pour chaque session
+    public static final class Ecouteur implements SessionEventListener {
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            debut();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            fin();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            debut();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            fin();
+        }
+
+        private static void debut() {
+            Mesure mesure = COURANTE.get();
+            if (mesure != null) {
+                mesure.debutNanos = System.nanoTime();
+            }
+        }
+
+        private static void fin() {
+            Mesure mesure = COURANTE.get();
+            if (mesure != null && mesure.debutNanos != 0) {
+                mesure.dureeNanos += System.nanoTime() - mesure.debutNanos;
+                mesure.debutNanos = 0;
+            }
+        }
+    }
+}
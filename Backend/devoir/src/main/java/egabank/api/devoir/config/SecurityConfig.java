@@ -1,5 +1,6 @@
 package egabank.api.devoir.config;
 
+import org.springframework.boot.security.autoconfigure.actuate.web.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -8,6 +9,11 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import egabank.api.devoir.security.JwtAuthenticationFilter;
+import egabank.api.devoir.security.JwtCache;
+import egabank.api.devoir.security.LimiteurDebit;
+import egabank.api.devoir.security.LimiteurDebitFilter;
+import egabank.api.devoir.security.RevocationJetons;
+import jakarta.servlet.DispatcherType;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -19,17 +25,26 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtCache jwtCache, RevocationJetons revocations,
+            LimiteurDebit limiteurDebit) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Fin d'une réponse en flux (StreamingResponseBody) : la requête d'origine a déjà été autorisée
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers("/auth/login").permitAll()
+                // Uniquement sur le port d'administration (management.server.port), fermé au public
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                .requestMatchers("/auth/revocations").hasRole("ADMIN")
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/comptes/*/deposer").hasAnyRole("ADMIN", "CLIENT")
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/comptes/*/retirer").hasAnyRole("ADMIN", "CLIENT")
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/comptes/*/transferer").hasAnyRole("ADMIN", "CLIENT")
+                .requestMatchers("/api/releves/lots", "/api/releves/lots/**").hasRole("ADMIN")
                 .requestMatchers("/api/releves/**").hasAnyRole("ADMIN", "CLIENT")
+                .requestMatchers(org.springframework.http.HttpMethod.GET, "/transactions/export").hasRole("ADMIN")
+                .requestMatchers("/stats/**").hasRole("ADMIN")
                 
             
                 .requestMatchers(org.springframework.http.HttpMethod.POST, "/clients/**").hasRole("ADMIN")
@@ -42,7 +57,8 @@ public class SecurityConfig {
                 
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(new JwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(new JwtAuthenticationFilter(jwtCache, revocations), UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(new LimiteurDebitFilter(limiteurDebit), JwtAuthenticationFilter.class);
         return http.build();
     }
 
@@ -52,7 +68,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With", "Access-Control-Request-Method", "Access-Control-Request-Headers", "*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Retry-After"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
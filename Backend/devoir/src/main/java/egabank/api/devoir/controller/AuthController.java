@@ -1,6 +1,9 @@
 package egabank.api.devoir.controller;
 
+import egabank.api.devoir.security.JwtCache;
 import egabank.api.devoir.security.JwtUtil;
+import egabank.api.devoir.security.RevocationJetons;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
@@ -8,6 +11,14 @@ import java.util.Map;
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
+    private final JwtCache jwtCache;
+    private final RevocationJetons revocations;
+
+    public AuthController(JwtCache jwtCache, RevocationJetons revocations) {
+        this.jwtCache = jwtCache;
+        this.revocations = revocations;
+    }
+
     @PostMapping("/login")
     public Map<String, String> login(@RequestBody Map<String, String> payload) {
         String username = payload.get("username");
@@ -31,4 +42,37 @@ public class AuthController {
             throw new RuntimeException("Identifiants invalides");
         }
     }
+
+    // Déconnexion : le jeton de la requête est refusé jusqu'à son expiration
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authHeader) {
+        JwtCache.JetonVerifie jeton = authHeader.startsWith("Bearer ")
+            ? jwtCache.verifier(authHeader.substring(7)) : null;
+        if (jeton == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        revocations.revoquer(jeton);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Révocation par un administrateur : {"token": "..."} pour un jeton, {"username": "..."} pour tous les jetons déjà émis à cet utilisateur
+    @PostMapping("/revocations")
+    public ResponseEntity<Map<String, Object>> revoquer(@RequestBody Map<String, String> payload) {
+        String token = payload.get("token");
+        String username = payload.get("username");
+        if (token != null) {
+            JwtCache.JetonVerifie jeton = jwtCache.verifier(token);
+            if (jeton == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            revocations.revoquer(jeton);
+        } else if (username != null && !username.isBlank()) {
+            revocations.revoquerUtilisateur(username);
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("revocations", revocations.taille());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -11,8 +11,11 @@ public class ClientRestController {
     public ClientRestController (IclientService clientService) {
         this.clientService = clientService;
     }
+    // Résumés par défaut ; details=true renvoie les entités complètes avec comptes et transactions
     @GetMapping("/clients")
-    public List<Client> listeClient(){ return clientService.showClient();}
+    public List<?> listeClient(@RequestParam(defaultValue = "false") boolean details){
+        return details ? clientService.showClient() : clientService.listerResumes();
+    }
     @GetMapping("clients/{id}")
     public Client getClient(@PathVariable Long id){ return clientService.getOneClient(id);}
     @PostMapping("/clients")
@@ -1,19 +1,32 @@
 package egabank.api.devoir.controller;
+import egabank.api.devoir.dto.OperationLotDTO;
+import egabank.api.devoir.dto.ResultatOperationDTO;
 import egabank.api.devoir.entity.Compte;
 import egabank.api.devoir.service.IcompteService;
+import egabank.api.devoir.service.IdempotenceStore;
+import egabank.api.devoir.service.SoldeJournalierService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 public class CompteRestController {
     private IcompteService compteService;
-    public CompteRestController (IcompteService compteService) {
+    private IdempotenceStore idempotenceStore;
+    private SoldeJournalierService soldeJournalierService;
+    public CompteRestController (IcompteService compteService, IdempotenceStore idempotenceStore,
+            SoldeJournalierService soldeJournalierService) {
         this.compteService = compteService;
+        this.idempotenceStore = idempotenceStore;
+        this.soldeJournalierService = soldeJournalierService;
     }
+    // Résumés par défaut ; details=true renvoie les entités complètes avec transactions
     @GetMapping("/comptes")
-    public List<Compte> listeCompte(){ return compteService.showCompte();}
+    public List<?> listeCompte(@RequestParam(defaultValue = "false") boolean details){
+        return details ? compteService.showCompte() : compteService.listerResumes();
+    }
     @GetMapping("comptes/{id}")
     public Compte getCompte(@PathVariable Long id){ return compteService.getOneCompte(id);}
     @PostMapping("/comptes")
@@ -28,20 +41,42 @@ public class CompteRestController {
         compteService.deleteCompte(id);
     }
     @PostMapping("/comptes/{id}/deposer")
-    public void deposer(@PathVariable Long id,  @RequestBody  Map<String, Object> body) {
+    public void deposer(@PathVariable Long id,  @RequestBody  Map<String, Object> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey, Principal principal) {
         Integer montant = Double.valueOf(body.get("montant").toString()).intValue();
         String origineFonds = (String) body.get("origineFonds");
-        compteService.deposer(id, montant, origineFonds);
+        idempotenceStore.executer(cle(principal, idempotencyKey), "deposer:" + id + ":" + body,
+            () -> compteService.deposer(id, montant, origineFonds));
     }
     @PostMapping("/comptes/{id}/retirer")
-    public void retirer(@PathVariable Long id,  @RequestBody  Map<String, Object> body) {
+    public void retirer(@PathVariable Long id,  @RequestBody  Map<String, Object> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey, Principal principal) {
         Integer montant = Double.valueOf(body.get("montant").toString()).intValue();
-        compteService.retirer(id, montant);
+        idempotenceStore.executer(cle(principal, idempotencyKey), "retirer:" + id + ":" + body,
+            () -> compteService.retirer(id, montant));
     }
    @PostMapping("/comptes/{id}/transferer")
-    public void transferer(@PathVariable Long id, @RequestBody Map<String, Object> body) {
+    public void transferer(@PathVariable Long id, @RequestBody Map<String, Object> body,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey, Principal principal) {
         Integer montant = Double.valueOf(body.get("montant").toString()).intValue();
         Long id2 = Double.valueOf(body.get("id").toString()).longValue();
-        compteService.transferer(id, montant, id2);
+        idempotenceStore.executer(cle(principal, idempotencyKey), "transferer:" + id + ":" + body,
+            () -> compteService.transferer(id, montant, id2));
+    }
+    // Une clé n'est valable que pour l'utilisateur qui l'a émise
+    private String cle(Principal principal, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return null;
+        }
+        return (principal != null ? principal.getName() : "") + ":" + idempotencyKey;
+    }
+    @PostMapping("/comptes/operations/batch")
+    public List<ResultatOperationDTO> traiterLot(@RequestBody List<OperationLotDTO> operations) {
+        return compteService.traiterLot(operations);
+    }
+    // Rattrapage des soldes journaliers depuis l'historique des transactions
+    @PostMapping("/comptes/soldes-journaliers/reconstruire")
+    public Map<String, Integer> reconstruireSoldesJournaliers() {
+        return Map.of("journees", soldeJournalierService.reconstruireTout());
     }
 }
@@ -1,25 +1,52 @@
 package egabank.api.devoir.controller;
 
+import egabank.api.devoir.dto.ReleveConsolideDTO;
 import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.service.ReleveAnnuelService;
+import egabank.api.devoir.service.ReleveCache;
+import egabank.api.devoir.service.ReleveConsolideService;
+import egabank.api.devoir.service.ReleveExecuteur;
 import egabank.api.devoir.service.ReleveService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Files;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/releves")
 @CrossOrigin(origins = "*")
 public class ReleveController {
     
+    // Attributs de requête de Tomcat pour l'envoi d'un fichier par sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FICHIER = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_DEBUT = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+    // Archive de relevés mensuels : trois ans au plus
+    private static final int MAX_MOIS_ARCHIVE = 36;
+    
     private final ReleveService releveService;
+    private final ReleveCache releveCache;
+    private final ReleveExecuteur releveExecuteur;
+    private final ReleveAnnuelService releveAnnuelService;
+    private final ReleveConsolideService releveConsolideService;
     
-    public ReleveController(ReleveService releveService) {
+    public ReleveController(ReleveService releveService, ReleveCache releveCache, ReleveExecuteur releveExecuteur,
+            ReleveAnnuelService releveAnnuelService, ReleveConsolideService releveConsolideService) {
         this.releveService = releveService;
+        this.releveCache = releveCache;
+        this.releveExecuteur = releveExecuteur;
+        this.releveAnnuelService = releveAnnuelService;
+        this.releveConsolideService = releveConsolideService;
     }
     
     @GetMapping("/compte/{compteId}")
@@ -36,27 +63,172 @@ public class ReleveController {
         }
     }
     
+    // Totaux et soldes uniquement (transactions = null)
+    @GetMapping("/compte/{compteId}/summary")
+    public ResponseEntity<ReleveDTO> obtenirResumeReleve(
+            @PathVariable Long compteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
+        
+        try {
+            return ResponseEntity.ok(releveService.obtenirResumeReleve(compteId, dateDebut, dateFin));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
     
     @GetMapping("/compte/{compteId}/pdf")
-    public ResponseEntity<byte[]> telechargerRelevePdf(
+    public ResponseEntity<StreamingResponseBody> telechargerRelevePdf(
             @PathVariable Long compteId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            HttpServletRequest requete) {
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", 
+            "releve_" + compteId + "_" + LocalDate.now() + ".pdf");
+        
+        // Compte et totaux résolus avant d'envoyer le moindre octet : une erreur donne encore un statut propre
+        ReleveCache.Cle cle;
+        ReleveDTO releve;
+        try {
+            cle = releveCache.cle(compteId, dateDebut, dateFin);
+            ReleveCache.PdfEnCache enCache = releveCache.trouver(cle);
+            if (enCache != null) {
+                return envoyerDepuisCache(enCache, headers, requete);
+            }
+            releve = releveService.obtenirResumeReleve(compteId, dateDebut, dateFin);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        
+        // Le rendu part sur la cloison des relevés (pas sur l'exécuteur asynchrone partagé) ; saturée : 503
+        if (!releveExecuteur.reserver()) {
+            return cloisonSaturee();
+        }
+        WebAsyncUtils.getAsyncManager(requete).setTaskExecutor(releveExecuteur.executeur());
+        
+        // Le PDF est écrit directement dans la réponse, page après page, et copié dans le cache au passage
+        StreamingResponseBody corps = sortie -> releveCache.generer(cle, sortie,
+            s -> releveService.ecrireRelevePdf(releve, s));
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(corps);
+    }
+    
+    /**
+     * Relevés mensuels de la période dans une archive ZIP (un PDF par mois, dans l'ordre), écrite mois
+     * par mois pendant le rendu parallèle des suivants. Soldes chaînés d'un mois au suivant.
+     */
+    @GetMapping("/compte/{compteId}/zip")
+    public ResponseEntity<StreamingResponseBody> telechargerRelevesMensuels(
+            @PathVariable Long compteId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            HttpServletRequest requete) {
+        
+        if (dateFin.isBefore(dateDebut) || dateFin.isAfter(dateDebut.plusMonths(MAX_MOIS_ARCHIVE))) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        // Clés avant les résumés, comme pour un relevé seul
+        List<ReleveCache.Cle> cles;
+        List<ReleveDTO> releves;
+        try {
+            cles = releveAnnuelService.cles(compteId, dateDebut, dateFin);
+            releves = releveService.obtenirResumesMensuels(compteId, dateDebut, dateFin);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        
+        // L'écriture de l'archive occupe une place de la cloison ; les mois sont rendus sur le pool de l'archive
+        if (!releveExecuteur.reserver()) {
+            return cloisonSaturee();
+        }
+        WebAsyncUtils.getAsyncManager(requete).setTaskExecutor(releveExecuteur.executeur());
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment",
+            "releves_" + compteId + "_" + dateDebut + "_" + dateFin + ".zip");
+        StreamingResponseBody corps = sortie -> releveAnnuelService.ecrireZip(releves, cles, sortie);
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(corps);
+    }
+    
+    /**
+     * Relevé consolidé d'un client en JSON : sous-totaux par compte puis toutes les opérations de ses
+     * comptes dans l'ordre chronologique, écrites au fil de la fusion.
+     */
+    @GetMapping("/client/{clientId}")
+    public ResponseEntity<StreamingResponseBody> obtenirReleveConsolide(
+            @PathVariable Long clientId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin) {
         
+        ReleveConsolideDTO releve;
+        try {
+            releve = releveConsolideService.obtenirResume(clientId, dateDebut, dateFin);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        StreamingResponseBody corps = sortie -> releveConsolideService.ecrireJson(releve, sortie);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(corps);
+    }
+    
+    @GetMapping("/client/{clientId}/pdf")
+    public ResponseEntity<StreamingResponseBody> telechargerReleveConsolidePdf(
+            @PathVariable Long clientId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            HttpServletRequest requete) {
+        
+        ReleveConsolideDTO releve;
         try {
-            byte[] pdf = releveService.genererRelevePdf(compteId, dateDebut, dateFin);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", 
-                "releve_" + compteId + "_" + LocalDate.now() + ".pdf");
-            headers.setContentLength(pdf.length);
-            
-            return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdf);
+            releve = releveConsolideService.obtenirResume(clientId, dateDebut, dateFin);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
+        
+        if (!releveExecuteur.reserver()) {
+            return cloisonSaturee();
+        }
+        WebAsyncUtils.getAsyncManager(requete).setTaskExecutor(releveExecuteur.executeur());
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment",
+            "releve_client_" + clientId + "_" + LocalDate.now() + ".pdf");
+        StreamingResponseBody corps = sortie -> releveService.ecrireReleveConsolidePdf(releve,
+            releveConsolideService.lignes(releve), sortie);
+        return ResponseEntity.ok()
+            .headers(headers)
+            .body(corps);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> cloisonSaturee() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(releveExecuteur.secondesAvantNouvelEssai()))
+            .build();
+    }
+    
+    private ResponseEntity<StreamingResponseBody> envoyerDepuisCache(ReleveCache.PdfEnCache enCache, HttpHeaders headers,
+            HttpServletRequest requete) {
+        headers.setContentLength(enCache.getTaille());
+        if (enCache.getContenu() != null) {
+            byte[] contenu = enCache.getContenu();
+            return ResponseEntity.ok().headers(headers).body(sortie -> sortie.write(contenu));
+        }
+        if (Boolean.TRUE.equals(requete.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat copie le fichier vers la socket sans passer par la JVM (corps vide côté contrôleur)
+            requete.setAttribute(SENDFILE_FICHIER, enCache.getFichier().toAbsolutePath().toString());
+            requete.setAttribute(SENDFILE_DEBUT, 0L);
+            requete.setAttribute(SENDFILE_FIN, enCache.getTaille());
+            return ResponseEntity.ok().headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(sortie -> Files.copy(enCache.getFichier(), sortie));
     }
 }
@@ -0,0 +1,47 @@
+package egabank.api.devoir.controller;
+
+import egabank.api.devoir.dto.LotReleveDTO;
+import egabank.api.devoir.service.ReleveLotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/releves/lots")
+@CrossOrigin(origins = "*")
+public class ReleveLotController {
+
+    private final ReleveLotService releveLotService;
+
+    public ReleveLotController(ReleveLotService releveLotService) {
+        this.releveLotService = releveLotService;
+    }
+
+    // Lance (ou reprend) la génération des relevés du mois pour tous les comptes ; suivi via GET /{mois}
+    @PostMapping
+    public ResponseEntity<LotReleveDTO> lancer(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth mois) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(releveLotService.lancer(mois));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/{mois}")
+    public ResponseEntity<LotReleveDTO> etat(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth mois) {
+        LotReleveDTO etat = releveLotService.etat(mois);
+        return etat == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(etat);
+    }
+
+    @GetMapping
+    public List<LotReleveDTO> lister() {
+        return releveLotService.lister();
+    }
+}
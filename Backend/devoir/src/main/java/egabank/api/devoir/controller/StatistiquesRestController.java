@@ -0,0 +1,40 @@
+package egabank.api.devoir.controller;
+import egabank.api.devoir.dto.ExecuteurReleveDTO;
+import egabank.api.devoir.dto.TableauDeBordDTO;
+import egabank.api.devoir.service.ReleveExecuteur;
+import egabank.api.devoir.service.StatistiquesService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class StatistiquesRestController {
+
+    private final StatistiquesService statistiquesService;
+    private final ReleveExecuteur releveExecuteur;
+
+    public StatistiquesRestController(StatistiquesService statistiquesService, ReleveExecuteur releveExecuteur) {
+        this.statistiquesService = statistiquesService;
+        this.releveExecuteur = releveExecuteur;
+    }
+
+    // Agrégats tenus à jour à chaque écriture : coût indépendant du nombre de transactions
+    @GetMapping("/stats/dashboard")
+    public TableauDeBordDTO getTableauDeBord(@RequestParam(required = false) Integer jours) {
+        return statistiquesService.tableauDeBord(jours);
+    }
+
+    // Reprise : recalcule les agrégats depuis la base
+    @PostMapping("/stats/dashboard/reconstruire")
+    public TableauDeBordDTO reconstruire(@RequestParam(required = false) Integer jours) {
+        statistiquesService.reconstruire();
+        return statistiquesService.tableauDeBord(jours);
+    }
+
+    // File et durées de la cloison de rendu des relevés PDF
+    @GetMapping("/stats/releves")
+    public ExecuteurReleveDTO getExecuteurReleves() {
+        return releveExecuteur.etat();
+    }
+}
@@ -1,21 +1,82 @@
 package egabank.api.devoir.controller;
-import egabank.api.devoir.entity.Transaction;
-import egabank.api.devoir.repository.TransactionRepository;
+import egabank.api.devoir.dto.PageTransactionsDTO;
+import egabank.api.devoir.service.TransactionExportService;
+import egabank.api.devoir.service.TransactionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.NoSuchElementException;
 
 @RestController
 public class TransactionRestController {
     
-    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
-    public TransactionRestController(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
+    public TransactionRestController(TransactionService transactionService,
+            TransactionExportService transactionExportService) {
+        this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
     }
 
+    // Pagination par curseur : repasser curseurSuivant tant qu'il n'est pas null
     @GetMapping("/transactions")
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public ResponseEntity<PageTransactionsDTO> getTransactions(
+            @RequestParam(required = false) String curseur,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long compteId) {
+        try {
+            return ResponseEntity.ok(transactionService.listerPage(curseur, limite, type, compteId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/comptes/{id}/transactions")
+    public ResponseEntity<PageTransactionsDTO> getTransactionsCompte(
+            @PathVariable Long id,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            @RequestParam(required = false) String curseur,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(transactionService.listerPageCompte(id, curseur, limite, type, dateDebut, dateFin));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    // Export complet (format=ndjson|csv), écrit dans la réponse au fur et à mesure de la lecture
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exporterTransactions(
+            @RequestParam(defaultValue = TransactionExportService.FORMAT_NDJSON) String format,
+            @RequestParam(required = false) Long compteId) {
+        String f;
+        try {
+            f = TransactionExportService.normaliserFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean csv = f.equals(TransactionExportService.FORMAT_CSV);
+        StreamingResponseBody corps = sortie -> transactionExportService.exporter(f, compteId, sortie);
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + f + "\"")
+            .body(corps);
     }
 }
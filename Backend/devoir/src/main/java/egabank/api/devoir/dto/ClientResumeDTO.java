@@ -0,0 +1,23 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+// Ligne de GET /clients : le client sans ses comptes, avec leur nombre et leur solde cumulé
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientResumeDTO {
+    private Long id;
+    private String nom;
+    private String prenom;
+    private LocalDate dnaissance;
+    private String sexe;
+    private String adresse;
+    private String tel;
+    private String nationalite;
+    private String courriel;
+    private Long nombreComptes;
+    private Long soldeTotal;
+}
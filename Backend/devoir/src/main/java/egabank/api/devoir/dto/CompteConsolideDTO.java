@@ -0,0 +1,19 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Sous-total d'un compte dans le relevé consolidé d'un client
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompteConsolideDTO {
+    private Long compteId;
+    private String numeroCompte;
+    private String typeCompte;
+    private Integer nombreTransactions;
+    private Integer totalCredits;
+    private Integer totalDebits;
+    private Integer soldeDebut;
+    private Integer soldeFin;
+}
@@ -0,0 +1,23 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Ligne de GET /comptes : le compte sans ses transactions, avec son titulaire et sa dernière opération
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompteResumeDTO {
+    private Long id;
+    private String numeroCompte;
+    private String typeCompte;
+    private LocalDate dateCreation;
+    private Integer solde;
+    private Long clientId;
+    private String clientNom;
+    private String clientPrenom;
+    // null si aucune transaction
+    private LocalDateTime derniereActivite;
+}
@@ -0,0 +1,24 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Mesures de la cloison de rendu des relevés PDF (durées en millisecondes)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecuteurReleveDTO {
+    private int threads;
+    private int actifs;
+    // Profondeur courante de la file et maximum observé
+    private int enAttente;
+    private int capaciteFile;
+    private long attenteMax;
+    private long soumis;
+    private long termines;
+    // Refusés (503) faute de place dans la file
+    private long rejetes;
+    private double attenteMoyenneMs;
+    private double dureeMoyenneMs;
+    private double dureeMaxMs;
+}
@@ -0,0 +1,21 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Opération du relevé consolidé, dans l'ordre chronologique tous comptes confondus
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LigneConsolideeDTO {
+    private Long id;
+    private LocalDateTime dateTransaction;
+    private Long compteId;
+    private String numeroCompte;
+    private String type;
+    private Integer montant;
+    // Soldes après l'opération : du compte, et de tous les comptes du client
+    private Integer soldeCompte;
+    private Long soldeTotal;
+}
@@ -0,0 +1,16 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Ligne du tableau d'un relevé PDF : juste ce qui est imprimé, sans entité
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LigneReleveDTO {
+    private Long id;
+    private LocalDateTime dateTransaction;
+    private String type;
+    private Integer montant;
+}
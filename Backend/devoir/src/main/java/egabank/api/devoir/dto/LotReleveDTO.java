@@ -0,0 +1,32 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Avancement d'un lot de relevés mensuels
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotReleveDTO {
+    private String mois;
+    // EN_COURS, TERMINE ou ECHEC
+    private String etat;
+    private long totalComptes;
+    // generes + dejaPresents + erreurs
+    private long traites;
+    private long generes;
+    // Relevés déjà écrits par une exécution précédente, non régénérés
+    private long dejaPresents;
+    private long erreurs;
+    private double pourcentage;
+    // Relevés générés par seconde depuis le (re)démarrage du lot
+    private double comptesParSeconde;
+    private long dureeSecondes;
+    private LocalDateTime debut;
+    private LocalDateTime fin;
+    private String repertoire;
+    private List<Long> comptesEnErreur;
+    private String message;
+}
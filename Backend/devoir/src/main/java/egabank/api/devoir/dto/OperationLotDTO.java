@@ -0,0 +1,15 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationLotDTO {
+    // DEPOT ou RETRAIT
+    private String type;
+    private Long compteId;
+    private Integer montant;
+    private String origineFonds;
+}
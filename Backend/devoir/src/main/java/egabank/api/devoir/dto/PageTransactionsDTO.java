@@ -0,0 +1,16 @@
+package egabank.api.devoir.dto;
+import egabank.api.devoir.entity.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageTransactionsDTO {
+    private List<Transaction> transactions;
+    // null quand il n'y a plus de page
+    private String curseurSuivant;
+    private int taille;
+}
@@ -0,0 +1,25 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.util.List;
+
+// En-tête du relevé consolidé d'un client : un sous-total par compte et les totaux de tous ses comptes
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReleveConsolideDTO {
+    private Long clientId;
+    private String nom;
+    private String prenom;
+    private String adresse;
+    private LocalDate dateDebut;
+    private LocalDate dateFin;
+    private List<CompteConsolideDTO> comptes;
+    private Integer nombreTransactions;
+    private Long totalCredits;
+    private Long totalDebits;
+    private Long soldeDebut;
+    private Long soldeFin;
+}
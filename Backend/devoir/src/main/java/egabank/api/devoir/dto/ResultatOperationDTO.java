@@ -0,0 +1,15 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultatOperationDTO {
+    private int index;
+    private boolean succes;
+    private String message;
+    private Long transactionId;
+    private Integer soldeApres;
+}
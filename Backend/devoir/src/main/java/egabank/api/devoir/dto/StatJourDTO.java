@@ -0,0 +1,15 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatJourDTO {
+    private LocalDate jour;
+    private String type;
+    private long nombre;
+    private long somme;
+}
@@ -0,0 +1,23 @@
+package egabank.api.devoir.dto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableauDeBordDTO {
+    private long nombreClients;
+    private long nombreComptes;
+    private long comptesEpargne;
+    private long comptesCourant;
+    private long soldeTotal;
+    // Un virement compte pour une opération (VIREMENT_RECU exclu)
+    private long nombreTransactions;
+    private long totalDepots;
+    private long totalRetraits;
+    private long totalVirements;
+    // Nombre et somme par jour et par type, du plus récent au plus ancien
+    private List<StatJourDTO> activiteParJour;
+}
@@ -10,11 +10,13 @@ import java.util.List;
 
 @Data
 @Entity
+@Table(indexes = @Index(name = "ux_compte_numero_compte", columnList = "numeroCompte", unique = true))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Compte {
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compte_seq")
+    @SequenceGenerator(name = "compte_seq", sequenceName = "compte_seq", allocationSize = 50)
     private Long id;
 
     private String numeroCompte;
@@ -0,0 +1,36 @@
+package egabank.api.devoir.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Solde d'un compte au début et à la fin d'une journée où il a eu au moins une opération.
+ * Tenu à jour par chaque écriture ; reconstructible depuis les transactions.
+ */
+@Data
+@Entity
+@Table(indexes = @Index(name = "ux_solde_journalier_compte_jour", columnList = "compte_id, jour", unique = true))
+@NoArgsConstructor
+@AllArgsConstructor
+public class SoldeJournalier {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solde_journalier_seq")
+    @SequenceGenerator(name = "solde_journalier_seq", sequenceName = "solde_journalier_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "compte_id", nullable = false)
+    private Long compteId;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    // Solde avant la première opération du jour
+    private Integer soldeDebut;
+
+    // Solde après la dernière opération du jour
+    private Integer soldeFin;
+}
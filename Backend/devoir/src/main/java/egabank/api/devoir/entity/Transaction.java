@@ -11,11 +11,19 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Table(indexes = {
+    // findByCompteIdAndDateBetween / findByCompteIdOrderByDateTransactionDesc : filtre + tri servis par l'index
+    @Index(name = "idx_transaction_compte_date", columnList = "compte_id, dateTransaction"),
+    @Index(name = "idx_transaction_numero_compte", columnList = "numeroCompte"),
+    // GET /transactions sans filtre de compte : parcours de l'index dans l'ordre de la pagination
+    @Index(name = "idx_transaction_date_id", columnList = "dateTransaction, id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
     private LocalDateTime dateTransaction;
     private String type;
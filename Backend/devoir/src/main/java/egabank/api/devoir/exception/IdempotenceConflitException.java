@@ -0,0 +1,7 @@
+package egabank.api.devoir.exception;
+
+public class IdempotenceConflitException extends RuntimeException{
+        public IdempotenceConflitException(String message) {
+            super(message);
+        }
+    }
@@ -1,5 +1,7 @@
 package egabank.api.devoir.exception;
 
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,7 +13,9 @@ import java.util.Map;
 
 
 
+// Prioritaire sur exceptionClient, dont le handler Exception.class masquerait les handlers spécifiques
 @RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class exceptionCompte {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -32,4 +36,9 @@ public class exceptionCompte {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(IdempotenceConflitException.class)
+    public ResponseEntity<String> handleIdempotenceConflit(IdempotenceConflitException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
 }
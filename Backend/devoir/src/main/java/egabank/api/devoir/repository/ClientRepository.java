@@ -1,7 +1,19 @@
 package egabank.api.devoir.repository;
 
+import egabank.api.devoir.dto.ClientResumeDTO;
 import egabank.api.devoir.entity.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
+
+    // Une seule requête agrégée : ni comptes ni transactions chargés
+    @Query("SELECT new egabank.api.devoir.dto.ClientResumeDTO(c.id, c.nom, c.prenom, c.dnaissance, c.sexe, c.adresse, "
+        + "c.tel, c.nationalite, c.courriel, COUNT(co.id), COALESCE(SUM(co.solde), 0L)) "
+        + "FROM Client c LEFT JOIN c.comptes co "
+        + "GROUP BY c.id, c.nom, c.prenom, c.dnaissance, c.sexe, c.adresse, c.tel, c.nationalite, c.courriel "
+        + "ORDER BY c.id")
+    List<ClientResumeDTO> findResumes();
 }
@@ -1,8 +1,39 @@
 package egabank.api.devoir.repository;
 
 
+import egabank.api.devoir.dto.CompteResumeDTO;
 import egabank.api.devoir.entity.Compte;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CompteRepository extends JpaRepository<Compte, Long> {
+
+    @Query("SELECT c FROM Compte c LEFT JOIN FETCH c.client WHERE c.id IN :ids")
+    List<Compte> findAllWithClientByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Dernière activité lue sur l'index (compte_id, date_transaction), sans charger les transactions
+    @Query("SELECT new egabank.api.devoir.dto.CompteResumeDTO(c.id, c.numeroCompte, c.typeCompte, c.dateCreation, c.solde, "
+        + "cl.id, cl.nom, cl.prenom, (SELECT MAX(t.dateTransaction) FROM Transaction t WHERE t.compte = c)) "
+        + "FROM Compte c LEFT JOIN c.client cl ORDER BY c.id")
+    List<CompteResumeDTO> findResumes();
+
+    // Reconstruction des statistiques : [typeCompte, nombre, somme des soldes]
+    @Query("SELECT c.typeCompte, COUNT(c), COALESCE(SUM(c.solde), 0) FROM Compte c GROUP BY c.typeCompte")
+    List<Object[]> agregerParType();
+
+    @Query("SELECT c.id FROM Compte c ORDER BY c.id")
+    List<Long> findAllIds();
+
+    // Parcours de tous les comptes par tranches d'ids croissants (relevés mensuels en lot)
+    @Query("SELECT c.id FROM Compte c WHERE c.id > :apresId ORDER BY c.id")
+    List<Long> findIdsApres(@Param("apresId") Long apresId, Pageable pageable);
+
+    // Comptes d'un client (relevé consolidé), sans charger la collection Client.comptes
+    @Query("SELECT c.id FROM Compte c WHERE c.client.id = :clientId ORDER BY c.id")
+    List<Long> findIdsByClientId(@Param("clientId") Long clientId);
 }
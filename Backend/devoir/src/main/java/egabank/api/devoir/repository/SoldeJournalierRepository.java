@@ -0,0 +1,25 @@
+package egabank.api.devoir.repository;
+
+import egabank.api.devoir.entity.SoldeJournalier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface SoldeJournalierRepository extends JpaRepository<SoldeJournalier, Long> {
+
+    Optional<SoldeJournalier> findByCompteIdAndJour(Long compteId, LocalDate jour);
+
+    // Dernière journée active jusqu'à "jour" inclus : un seul parcours d'index (compte_id, jour)
+    Optional<SoldeJournalier> findFirstByCompteIdAndJourLessThanEqualOrderByJourDesc(Long compteId, LocalDate jour);
+
+    // Première journée active après "jour"
+    Optional<SoldeJournalier> findFirstByCompteIdAndJourGreaterThanOrderByJourAsc(Long compteId, LocalDate jour);
+
+    @Modifying
+    @Query("DELETE FROM SoldeJournalier s WHERE s.compteId = :compteId")
+    int supprimerParCompte(@Param("compteId") Long compteId);
+}
@@ -1,11 +1,17 @@
 package egabank.api.devoir.repository;
+import egabank.api.devoir.dto.LigneReleveDTO;
 import egabank.api.devoir.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
@@ -17,4 +23,109 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     );
     
     List<Transaction> findByCompteIdOrderByDateTransactionDesc(Long compteId);
+
+    // Pagination par clé (dateTransaction, id) décroissante : pas d'OFFSET, chaque page part du dernier élément vu
+    @Query("SELECT t FROM Transaction t WHERE (t.dateTransaction < :date OR (t.dateTransaction = :date AND t.id < :id)) "
+        + "AND (:type IS NULL OR t.type = :type) ORDER BY t.dateTransaction DESC, t.id DESC")
+    List<Transaction> findPageAvant(
+        @Param("date") LocalDateTime date,
+        @Param("id") Long id,
+        @Param("type") String type,
+        Pageable pageable
+    );
+
+    // :depuis borne basse de la période ; la borne haute est portée par le curseur de départ
+    @Query("SELECT t FROM Transaction t WHERE t.compte.id = :compteId "
+        + "AND t.dateTransaction >= :depuis "
+        + "AND (t.dateTransaction < :date OR (t.dateTransaction = :date AND t.id < :id)) "
+        + "AND (:type IS NULL OR t.type = :type) ORDER BY t.dateTransaction DESC, t.id DESC")
+    List<Transaction> findPageAvantParCompte(
+        @Param("compteId") Long compteId,
+        @Param("depuis") LocalDateTime depuis,
+        @Param("date") LocalDateTime date,
+        @Param("id") Long id,
+        @Param("type") String type,
+        Pageable pageable
+    );
+
+    // Export : curseur JDBC lu par paquets de 1000 lignes, entités en lecture seule (pas de copie pour le dirty checking).
+    // Compte et client chargés dans la même ligne, sans requête secondaire par compte.
+    // À consommer dans une transaction ouverte et à fermer après usage.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.compte c LEFT JOIN FETCH c.client "
+        + "WHERE (:compteId IS NULL OR c.id = :compteId) ORDER BY t.id")
+    Stream<Transaction> streamPourExport(@Param("compteId") Long compteId);
+
+    // Reconstruction des statistiques : [jour, type, nombre, somme des montants]
+    @Query("SELECT CAST(t.dateTransaction AS LocalDate), t.type, COUNT(t), COALESCE(SUM(t.montant), 0) "
+        + "FROM Transaction t WHERE t.dateTransaction IS NOT NULL "
+        + "GROUP BY CAST(t.dateTransaction AS LocalDate), t.type")
+    List<Object[]> agregerParJourEtType();
+
+    // Reconstruction des soldes journaliers : [jour, montantAvant, montantApres] dans l'ordre d'écriture, sans entités
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT CAST(t.dateTransaction AS LocalDate), t.montantAvant, t.montantApres FROM Transaction t "
+        + "WHERE t.compte.id = :compteId AND t.dateTransaction IS NOT NULL ORDER BY t.dateTransaction, t.id")
+    Stream<Object[]> streamSoldesParCompte(@Param("compteId") Long compteId);
+
+    // Relevé sans le détail : [nombre, total crédits, total débits] en un seul passage sur l'index (compte_id, date_transaction)
+    @Query("SELECT COUNT(t), "
+        + "COALESCE(SUM(CASE WHEN t.type IN ('DEPOT', 'VIREMENT_RECU') THEN t.montant ELSE 0 END), 0), "
+        + "COALESCE(SUM(CASE WHEN t.type IN ('DEPOT', 'VIREMENT_RECU') THEN 0 ELSE t.montant END), 0) "
+        + "FROM Transaction t WHERE t.compte.id = :compteId AND t.dateTransaction BETWEEN :dateDebut AND :dateFin")
+    List<Object[]> totauxPeriode(
+        @Param("compteId") Long compteId,
+        @Param("dateDebut") LocalDateTime dateDebut,
+        @Param("dateFin") LocalDateTime dateFin
+    );
+
+    // Relevés mensuels d'une période en une requête : [année, mois, nombre, total crédits, total débits], mois sans opération absents
+    @Query("SELECT YEAR(t.dateTransaction), MONTH(t.dateTransaction), COUNT(t), "
+        + "COALESCE(SUM(CASE WHEN t.type IN ('DEPOT', 'VIREMENT_RECU') THEN t.montant ELSE 0 END), 0), "
+        + "COALESCE(SUM(CASE WHEN t.type IN ('DEPOT', 'VIREMENT_RECU') THEN 0 ELSE t.montant END), 0) "
+        + "FROM Transaction t WHERE t.compte.id = :compteId AND t.dateTransaction BETWEEN :dateDebut AND :dateFin "
+        + "GROUP BY YEAR(t.dateTransaction), MONTH(t.dateTransaction)")
+    List<Object[]> totauxParMois(
+        @Param("compteId") Long compteId,
+        @Param("dateDebut") LocalDateTime dateDebut,
+        @Param("dateFin") LocalDateTime dateFin
+    );
+
+    // Dernière transaction du compte sur la période : toute nouvelle écriture dans la période la change
+    @Query("SELECT MAX(t.id) FROM Transaction t "
+        + "WHERE t.compte.id = :compteId AND t.dateTransaction BETWEEN :dateDebut AND :dateFin")
+    Long derniereTransactionPeriode(
+        @Param("compteId") Long compteId,
+        @Param("dateDebut") LocalDateTime dateDebut,
+        @Param("dateFin") LocalDateTime dateFin
+    );
+
+    // Lignes du relevé PDF par pages de clé (dateTransaction, id) décroissante, sans hydrater d'entités
+    @Query("SELECT new egabank.api.devoir.dto.LigneReleveDTO(t.id, t.dateTransaction, t.type, t.montant) "
+        + "FROM Transaction t WHERE t.compte.id = :compteId AND t.dateTransaction >= :depuis "
+        + "AND (t.dateTransaction < :date OR (t.dateTransaction = :date AND t.id < :id)) "
+        + "ORDER BY t.dateTransaction DESC, t.id DESC")
+    List<LigneReleveDTO> findLignesReleveAvant(
+        @Param("compteId") Long compteId,
+        @Param("depuis") LocalDateTime depuis,
+        @Param("date") LocalDateTime date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    // Relevé consolidé : lignes d'un compte par pages de clé (dateTransaction, id) croissante, fusionnées entre comptes
+    @Query("SELECT new egabank.api.devoir.dto.LigneReleveDTO(t.id, t.dateTransaction, t.type, t.montant) "
+        + "FROM Transaction t WHERE t.compte.id = :compteId AND t.dateTransaction <= :jusqua "
+        + "AND (t.dateTransaction > :date OR (t.dateTransaction = :date AND t.id > :id)) "
+        + "ORDER BY t.dateTransaction, t.id")
+    List<LigneReleveDTO> findLignesReleveApres(
+        @Param("compteId") Long compteId,
+        @Param("jusqua") LocalDateTime jusqua,
+        @Param("date") LocalDateTime date,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 }
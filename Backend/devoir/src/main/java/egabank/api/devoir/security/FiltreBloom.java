@@ -0,0 +1,57 @@
+package egabank.api.devoir.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom sur des chaînes : contient() peut répondre vrai à tort (au taux visé), jamais faux
+ * à tort. Lecture sans verrou ; pas de suppression, on reconstruit un nouveau filtre à la place.
+ */
+final class FiltreBloom {
+    private final AtomicLongArray bits;
+    private final int nombreBits;
+    private final int nombreHachages;
+
+    FiltreBloom(int capacite, double tauxFauxPositifs) {
+        int n = Math.max(1, capacite);
+        long m = (long) Math.ceil(-n * Math.log(tauxFauxPositifs) / (Math.log(2) * Math.log(2)));
+        this.nombreBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.nombreHachages = Math.max(1, (int) Math.round((double) nombreBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((nombreBits + 63) / 64);
+    }
+
+    void ajouter(String cle) {
+        long h1 = melanger(cle.hashCode());
+        long h2 = melanger(h1) | 1;
+        for (int i = 0; i < nombreHachages; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) nombreBits);
+            int mot = bit >>> 6;
+            long masque = 1L << bit;
+            long ancien;
+            while (((ancien = bits.get(mot)) & masque) == 0 && !bits.compareAndSet(mot, ancien, ancien | masque)) {
+                // Un autre bit du même mot vient d'être posé : on recommence
+            }
+        }
+    }
+
+    boolean contient(String cle) {
+        long h1 = melanger(cle.hashCode());
+        long h2 = melanger(h1) | 1;
+        for (int i = 0; i < nombreHachages; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) nombreBits);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Finalisation de MurmurHash3 : répartit les 32 bits de hashCode() sur 64 bits
+    private static long melanger(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -11,31 +11,26 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private final JwtCache jwtCache;
+    private final RevocationJetons revocations;
+
+    public JwtAuthenticationFilter(JwtCache jwtCache, RevocationJetons revocations) {
+        this.jwtCache = jwtCache;
+        this.revocations = revocations;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = JwtUtil.extractUsername(token);
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (JwtUtil.isTokenValid(token)) {
-                String role = JwtUtil.extractRole(token);
-                java.util.List<org.springframework.security.core.authority.SimpleGrantedAuthority> authorities = null;
-                
-                if (role != null) {
-                    authorities = java.util.Collections.singletonList(
-                        new org.springframework.security.core.authority.SimpleGrantedAuthority("ROLE_" + role)
-                    );
-                }
-                
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Jeton invalide, expiré ou révoqué : la requête continue sans authentification (refusée par les règles d'accès)
+            JwtCache.JetonVerifie jeton = jwtCache.verifier(authHeader.substring(7));
+            if (jeton != null && !revocations.estRevoque(jeton)) {
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
+                        new UsernamePasswordAuthenticationToken(jeton.getUsername(), null, jeton.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -0,0 +1,175 @@
+package egabank.api.devoir.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jetons déjà vérifiés, indexés par l'empreinte SHA-256 du jeton (le jeton lui-même n'est pas gardé).
+ * Un jeton revu évite le décodage et la vérification HMAC ; l'entrée expire avec le jeton.
+ * Seuls les jetons valides sont mémorisés. Cache plein : les entrées expirées sont purgées et, s'il
+ * reste plein, le jeton est vérifié sans être mémorisé.
+ */
+@Component
+public class JwtCache {
+    private final Map<String, JetonVerifie> entrees = new ConcurrentHashMap<>();
+    private final boolean actif;
+    private final int tailleMax;
+    // Durée de vérification selon l'issue : trouvé en cache, analysé et vérifié, refusé
+    private final Timer dureeCache;
+    private final Timer dureeAnalyse;
+    private final Timer dureeRefus;
+
+    public JwtCache(@Value("${egabank.security.jwt-cache.enabled:true}") boolean actif,
+            @Value("${egabank.security.jwt-cache.max-entries:10000}") int tailleMax,
+            MeterRegistry registry) {
+        this.actif = actif;
+        this.tailleMax = tailleMax;
+        this.dureeCache = chrono(registry, "cache");
+        this.dureeAnalyse = chrono(registry, "verifie");
+        this.dureeRefus = chrono(registry, "refuse");
+    }
+
+    private static Timer chrono(MeterRegistry registry, String resultat) {
+        return Timer.builder("egabank.auth.jwt")
+            .description("Vérification du jeton JWT d'une requête")
+            .tag("resultat", resultat)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    /**
+     * Identité portée par le jeton, ou null si le jeton est invalide, falsifié ou expiré.
+     */
+    public JetonVerifie verifier(String token) {
+        long debut = System.nanoTime();
+        String cle = empreinte(token);
+        if (!actif) {
+            return mesurer(analyser(token, cle), dureeAnalyse, debut);
+        }
+        long maintenant = System.currentTimeMillis();
+        JetonVerifie connu = entrees.get(cle);
+        if (connu != null) {
+            if (!connu.estExpire(maintenant)) {
+                return mesurer(connu, dureeCache, debut);
+            }
+            entrees.remove(cle, connu);
+            return mesurer(null, dureeRefus, debut);
+        }
+        JetonVerifie verifie = analyser(token, cle);
+        if (verifie != null) {
+            if (entrees.size() >= tailleMax) {
+                purger(maintenant);
+            }
+            if (entrees.size() < tailleMax) {
+                entrees.put(cle, verifie);
+            }
+        }
+        return mesurer(verifie, dureeAnalyse, debut);
+    }
+
+    private JetonVerifie mesurer(JetonVerifie jeton, Timer timer, long debut) {
+        (jeton != null ? timer : dureeRefus).record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        return jeton;
+    }
+
+    public int taille() {
+        return entrees.size();
+    }
+
+    private static JetonVerifie analyser(String token, String cle) {
+        try {
+            Claims claims = JwtUtil.getClaims(token);
+            Date expiration = claims.getExpiration();
+            if (claims.getSubject() == null || expiration == null) {
+                return null;
+            }
+            return new JetonVerifie(cle, claims.getSubject(), (String) claims.get("role"),
+                emission(claims), expiration.getTime());
+        } catch (JwtException | IllegalArgumentException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    // Instant d'émission en ms ; sans iatMs, iat arrondi à la seconde : une révocation dans la même
+    // seconde refuse aussi ce jeton (côté sûr)
+    private static long emission(Claims claims) {
+        Number emissionMs = (Number) claims.get(JwtUtil.EMISSION_MS);
+        if (emissionMs != null) {
+            return emissionMs.longValue();
+        }
+        Date emission = claims.getIssuedAt();
+        return emission != null ? emission.getTime() : 0;
+    }
+
+    private void purger(long maintenant) {
+        entrees.values().removeIf(e -> e.estExpire(maintenant));
+    }
+
+    private static String empreinte(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class JetonVerifie {
+        private final String empreinte;
+        private final String username;
+        private final List<GrantedAuthority> authorities;
+        private final long emisA;
+        private final long expireA;
+
+        private JetonVerifie(String empreinte, String username, String role, long emisA, long expireA) {
+            this.empreinte = empreinte;
+            this.username = username;
+            this.authorities = role != null
+                ? Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                : null;
+            this.emisA = emisA;
+            this.expireA = expireA;
+        }
+
+        public String getEmpreinte() {
+            return empreinte;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        public long getEmisA() {
+            return emisA;
+        }
+
+        public long getExpireA() {
+            return expireA;
+        }
+
+        private boolean estExpire(long maintenant) {
+            return maintenant >= expireA;
+        }
+    }
+}
@@ -4,25 +4,34 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import java.util.Date;
+import java.util.UUID;
 
 public class JwtUtil {
     private static final String SECRET_KEY = "secret";
+    public static final long DUREE_VALIDITE_MS = 86400000; // 1 jour
+    // iat n'a que la seconde : l'instant d'émission exact sert à comparer avec une révocation
+    public static final String EMISSION_MS = "iatMs";
 
     public static String generateToken(String username) {
+        Date emission = new Date();
         return Jwts.builder()
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000)) // 1 jour
+                .setIssuedAt(emission)
+                .claim(EMISSION_MS, emission.getTime())
+                .setExpiration(new Date(emission.getTime() + DUREE_VALIDITE_MS))
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
 
     public static String generateTokenWithRole(String username, String role) {
+        Date emission = new Date();
         return Jwts.builder()
                 .setSubject(username)
                 .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
+                .setId(UUID.randomUUID().toString()) // chaque connexion a son propre jeton, révocable seul
+                .setIssuedAt(emission)
+                .claim(EMISSION_MS, emission.getTime())
+                .setExpiration(new Date(emission.getTime() + DUREE_VALIDITE_MS))
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
@@ -39,7 +48,8 @@ public class JwtUtil {
         return getClaims(token).getExpiration().after(new Date());
     }
 
-    private static Claims getClaims(String token) {
+    // Une seule analyse (décodage + vérification HMAC + expiration) pour toutes les informations du jeton
+    public static Claims getClaims(String token) {
         return Jwts.parser()
                 .setSigningKey(SECRET_KEY)
                 .parseClaimsJws(token)
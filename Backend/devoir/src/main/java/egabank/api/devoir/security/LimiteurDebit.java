@@ -0,0 +1,132 @@
+package egabank.api.devoir.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seaux à jetons par utilisateur (sujet du JWT) et par classe d'endpoints. Un seau tient en un seul
+ * AtomicLong : l'instant auquel il serait de nouveau plein (algorithme GCRA, équivalent au seau à
+ * jetons). Consommer un jeton = un compareAndSet, sans verrou. Un seau redevenu plein ne porte plus
+ * aucune information : evincer() les retire.
+ */
+@Component
+public class LimiteurDebit implements MeterBinder {
+
+    public enum Classe { ECRITURES, RELEVES, LECTURES }
+
+    private final boolean actif;
+    private final Map<Classe, Regle> regles = new EnumMap<>(Classe.class);
+
+    public LimiteurDebit(@Value("${egabank.rate-limit.enabled:true}") boolean actif,
+            @Value("${egabank.rate-limit.postings.capacity:20}") int capaciteEcritures,
+            @Value("${egabank.rate-limit.postings.per-second:10}") double debitEcritures,
+            @Value("${egabank.rate-limit.statements.capacity:5}") int capaciteReleves,
+            @Value("${egabank.rate-limit.statements.per-second:1}") double debitReleves,
+            @Value("${egabank.rate-limit.listings.capacity:100}") int capaciteLectures,
+            @Value("${egabank.rate-limit.listings.per-second:50}") double debitLectures) {
+        this.actif = actif;
+        regles.put(Classe.ECRITURES, new Regle(capaciteEcritures, debitEcritures));
+        regles.put(Classe.RELEVES, new Regle(capaciteReleves, debitReleves));
+        regles.put(Classe.LECTURES, new Regle(capaciteLectures, debitLectures));
+    }
+
+    /**
+     * Classe de la requête, ou null si elle n'est pas limitée (administration, authentification).
+     */
+    public static Classe classer(String methode, String uri) {
+        if (uri.startsWith("/api/releves/") || uri.equals("/transactions/export")) {
+            return Classe.RELEVES;
+        }
+        if (methode.equals("POST") && uri.startsWith("/comptes/")
+                && (uri.endsWith("/deposer") || uri.endsWith("/retirer") || uri.endsWith("/transferer")
+                    || uri.equals("/comptes/operations/batch"))) {
+            return Classe.ECRITURES;
+        }
+        return methode.equals("GET") ? Classe.LECTURES : null;
+    }
+
+    /**
+     * Consomme un jeton du seau de l'utilisateur. 0 : accepté ; sinon nanosecondes avant qu'un jeton soit disponible.
+     */
+    public long consommer(String sujet, Classe classe) {
+        if (!actif) {
+            return 0;
+        }
+        Regle regle = regles.get(classe);
+        long maintenant = System.nanoTime();
+        AtomicLong plein = regle.seaux.get(sujet);
+        if (plein == null) {
+            plein = regle.seaux.computeIfAbsent(sujet, s -> new AtomicLong(maintenant));
+        }
+        while (true) {
+            long actuel = plein.get();
+            // Seau déjà plein : il se vide à partir de maintenant
+            long suivant = (actuel - maintenant > 0 ? actuel : maintenant) + regle.intervalleNanos;
+            long depassement = suivant - maintenant - regle.fenetreNanos;
+            if (depassement > 0) {
+                regle.rejets.increment();
+                return depassement;
+            }
+            if (plein.compareAndSet(actuel, suivant)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Retire les seaux pleins : les recréer plus tard donne exactement le même état.
+     */
+    @Scheduled(fixedDelayString = "${egabank.rate-limit.eviction-ms:60000}")
+    public void evincer() {
+        long maintenant = System.nanoTime();
+        for (Regle regle : regles.values()) {
+            regle.seaux.values().removeIf(plein -> plein.get() - maintenant <= 0);
+        }
+    }
+
+    public int taille() {
+        int n = 0;
+        for (Regle regle : regles.values()) {
+            n += regle.seaux.size();
+        }
+        return n;
+    }
+
+    public long rejets(Classe classe) {
+        return regles.get(classe).rejets.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<Classe, Regle> e : regles.entrySet()) {
+            FunctionCounter.builder("egabank.rate-limit.rejets", e.getValue().rejets, LongAdder::sum)
+                .description("Requêtes refusées par le limiteur de débit (429)")
+                .tag("classe", e.getKey().name().toLowerCase())
+                .register(registry);
+        }
+    }
+
+    private static final class Regle {
+        private final long intervalleNanos;
+        // Rafale autorisée : capacité du seau exprimée en temps
+        private final long fenetreNanos;
+        private final Map<String, AtomicLong> seaux = new ConcurrentHashMap<>();
+        private final LongAdder rejets = new LongAdder();
+
+        private Regle(int capacite, double parSeconde) {
+            this.intervalleNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / parSeconde));
+            this.fenetreNanos = intervalleNanos * Math.max(1, capacite);
+        }
+    }
+}
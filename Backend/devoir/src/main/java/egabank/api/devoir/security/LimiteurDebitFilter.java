@@ -0,0 +1,39 @@
+package egabank.api.devoir.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Après JwtAuthenticationFilter : limite les requêtes authentifiées par utilisateur, 429 au-delà
+public class LimiteurDebitFilter extends OncePerRequestFilter {
+    private final LimiteurDebit limiteur;
+
+    public LimiteurDebitFilter(LimiteurDebit limiteur) {
+        this.limiteur = limiteur;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentification = SecurityContextHolder.getContext().getAuthentication();
+        LimiteurDebit.Classe classe = LimiteurDebit.classer(request.getMethod(), request.getRequestURI());
+        if (authentification != null && classe != null) {
+            long attenteNanos = limiteur.consommer(authentification.getName(), classe);
+            if (attenteNanos > 0) {
+                long secondes = Math.max(1, (attenteNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(secondes));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,102 @@
+package egabank.api.devoir.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jetons révoqués (déconnexion) et utilisateurs dont tous les jetons émis jusqu'ici sont révoqués.
+ * Chaque requête interroge d'abord un filtre de Bloom, en mémoire et sans verrou : seule une
+ * réponse positive (révocation probable) passe par l'ensemble exact. Une révocation est oubliée
+ * une fois les jetons concernés expirés ; compacter() reconstruit alors les filtres.
+ */
+@Component
+public class RevocationJetons {
+    private final Map<String, Long> jetons = new ConcurrentHashMap<>();
+    // Utilisateur -> instant de révocation (ms) ; les jetons émis jusqu'à cet instant sont refusés.
+    // L'émission est comparée à la milliseconde (claim iatMs), pas à la seconde de iat.
+    private final Map<String, Long> sujets = new ConcurrentHashMap<>();
+    private final int capacite;
+    private final double tauxFauxPositifs;
+    private final long dureeJetonMs;
+    private volatile FiltreBloom filtreJetons;
+    private volatile FiltreBloom filtreSujets;
+    private final LongAdder fauxPositifs = new LongAdder();
+
+    public RevocationJetons(@Value("${egabank.security.revocation.expected-entries:100000}") int capacite,
+            @Value("${egabank.security.revocation.false-positive-rate:0.01}") double tauxFauxPositifs) {
+        this.capacite = capacite;
+        this.tauxFauxPositifs = tauxFauxPositifs;
+        this.dureeJetonMs = JwtUtil.DUREE_VALIDITE_MS;
+        this.filtreJetons = new FiltreBloom(capacite, tauxFauxPositifs);
+        this.filtreSujets = new FiltreBloom(capacite, tauxFauxPositifs);
+    }
+
+    public boolean estRevoque(JwtCache.JetonVerifie jeton) {
+        if (filtreJetons.contient(jeton.getEmpreinte())) {
+            if (jetons.containsKey(jeton.getEmpreinte())) {
+                return true;
+            }
+            fauxPositifs.increment();
+        }
+        if (filtreSujets.contient(jeton.getUsername())) {
+            Long revoqueA = sujets.get(jeton.getUsername());
+            if (revoqueA != null && jeton.getEmisA() <= revoqueA) {
+                return true;
+            }
+            if (revoqueA == null) {
+                fauxPositifs.increment();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Révoque ce jeton jusqu'à son expiration.
+     */
+    public synchronized void revoquer(JwtCache.JetonVerifie jeton) {
+        jetons.put(jeton.getEmpreinte(), jeton.getExpireA());
+        filtreJetons.ajouter(jeton.getEmpreinte());
+    }
+
+    /**
+     * Révoque tous les jetons de cet utilisateur émis jusqu'à maintenant.
+     */
+    public synchronized void revoquerUtilisateur(String username) {
+        sujets.put(username, System.currentTimeMillis());
+        filtreSujets.ajouter(username);
+    }
+
+    /**
+     * Oublie les révocations dont tous les jetons ont expiré et reconstruit les filtres sans elles.
+     * Les révocations sont bloquées le temps de la reconstruction, les vérifications jamais.
+     */
+    @Scheduled(fixedDelayString = "${egabank.security.revocation.compaction-ms:600000}")
+    public synchronized void compacter() {
+        long maintenant = System.currentTimeMillis();
+        jetons.values().removeIf(expireA -> expireA <= maintenant);
+        sujets.values().removeIf(revoqueA -> revoqueA + dureeJetonMs <= maintenant);
+        filtreJetons = reconstruire(jetons);
+        filtreSujets = reconstruire(sujets);
+    }
+
+    private FiltreBloom reconstruire(Map<String, Long> entrees) {
+        FiltreBloom filtre = new FiltreBloom(Math.max(capacite, entrees.size() * 2), tauxFauxPositifs);
+        for (String cle : entrees.keySet()) {
+            filtre.ajouter(cle);
+        }
+        return filtre;
+    }
+
+    public int taille() {
+        return jetons.size() + sujets.size();
+    }
+
+    public long fauxPositifs() {
+        return fauxPositifs.sum();
+    }
+}
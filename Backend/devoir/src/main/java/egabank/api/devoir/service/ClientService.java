@@ -1,7 +1,9 @@
 package egabank.api.devoir.service;
 
+import egabank.api.devoir.dto.ClientResumeDTO;
 import egabank.api.devoir.entity.Client;
 import egabank.api.devoir.repository.ClientRepository;
+import egabank.api.devoir.repository.CompteRepository;
 import egabank.api.devoir.repository.TransactionRepository;
 import egabank.api.devoir.entity.Transaction;
 import org.springframework.stereotype.Service;
@@ -11,19 +13,35 @@ import java.util.List;
 @Service
 public class ClientService implements IclientService {
     private final ClientRepository clientRepository;
+    private final CompteRepository compteRepository;
     private final TransactionRepository transactionRepository;
-    public ClientService(ClientRepository clientRepository, TransactionRepository transactionRepository) {
+    private final StatistiquesService statistiques;
+    private final SoldeJournalierService soldesJournaliers;
+    private final ReleveCache releveCache;
+    public ClientService(ClientRepository clientRepository, CompteRepository compteRepository,
+            TransactionRepository transactionRepository, StatistiquesService statistiques,
+            SoldeJournalierService soldesJournaliers, ReleveCache releveCache) {
         this.clientRepository = clientRepository;
+        this.compteRepository = compteRepository;
         this.transactionRepository = transactionRepository;
+        this.statistiques = statistiques;
+        this.soldesJournaliers = soldesJournaliers;
+        this.releveCache = releveCache;
     }
     @Override
     public List<Client> showClient() {
         return clientRepository.findAll();
     }
     @Override
+    public List<ClientResumeDTO> listerResumes() {
+        return clientRepository.findResumes();
+    }
+    @Override
     public Client saveClient(Client client) {
+        boolean nouveau = true;
         if (client.getId() != null) {
             Client existingClient = clientRepository.findById(client.getId()).orElse(null);
+            nouveau = existingClient == null;
             if (existingClient != null && client.getComptes() == null) {
                 client.setComptes(existingClient.getComptes());
             }
@@ -54,7 +72,16 @@ public class ClientService implements IclientService {
         if(client.getTel() != null){
             client.setTel(client.getTel().toUpperCase());
         }
-        return clientRepository.save(client);
+        Client enregistre = clientRepository.save(client);
+        if (nouveau) {
+            statistiques.clientCree();
+        } else {
+            // Nom et adresse du titulaire figurent sur les relevés en cache de chacun de ses comptes
+            for (Long compteId : compteRepository.findIdsByClientId(enregistre.getId())) {
+                releveCache.invaliderCompte(compteId);
+            }
+        }
+        return enregistre;
     }
 
     @Override
@@ -78,6 +105,15 @@ public class ClientService implements IclientService {
                 }
             }
             clientRepository.delete(client);
+            // Les comptes du client sont supprimés en cascade, leurs soldes journaliers et relevés en cache avec eux
+            if (client.getComptes() != null) {
+                for (egabank.api.devoir.entity.Compte compte : client.getComptes()) {
+                    soldesJournaliers.supprimerCompte(compte.getId());
+                    releveCache.invaliderCompte(compte.getId());
+                    statistiques.compteSupprime(compte.getTypeCompte(), compte.getSolde());
+                }
+            }
+            statistiques.clientSupprime();
         }
     }
 }
\ No newline at end of file
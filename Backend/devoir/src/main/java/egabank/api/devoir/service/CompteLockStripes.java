@@ -0,0 +1,111 @@
+package egabank.api.devoir.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Verrous par compte, répartis sur un nombre fixe de "stripes" (hash de Compte.id).
+ * Les opérations sur un même compte sont sérialisées, les comptes différents
+ * avancent en parallèle. Les verrous sont locaux à la JVM.
+ */
+@Component
+public class CompteLockStripes {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public CompteLockStripes(@Value("${egabank.posting.lock-stripes:64}") int nombreStripes) {
+        int taille = Integer.highestOneBit(Math.max(1, nombreStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[taille];
+        for (int i = 0; i < taille; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = taille - 1;
+    }
+
+    int stripeIndex(Long compteId) {
+        int h = Long.hashCode(compteId);
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    public <T> T avecVerrou(Long compteId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeIndex(compteId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prend les deux verrous toujours dans l'ordre croissant des stripes,
+     * ce qui exclut tout interblocage entre deux virements croisés.
+     */
+    public <T> T avecVerrous(Long compteId1, Long compteId2, Supplier<T> action) {
+        int i1 = stripeIndex(compteId1);
+        int i2 = stripeIndex(compteId2);
+        if (i1 == i2) {
+            return avecVerrou(compteId1, action);
+        }
+        ReentrantLock premier = stripes[Math.min(i1, i2)];
+        ReentrantLock second = stripes[Math.max(i1, i2)];
+        premier.lock();
+        try {
+            second.lock();
+            try {
+                return action.get();
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            premier.unlock();
+        }
+    }
+
+    /**
+     * Variante pour un lot : les stripes distinctes sont verrouillées par index croissant.
+     */
+    public <T> T avecVerrous(Collection<Long> compteIds, Supplier<T> action) {
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (Long id : compteIds) {
+            indices.add(stripeIndex(id));
+        }
+        Deque<ReentrantLock> pris = new ArrayDeque<>();
+        try {
+            for (Integer i : indices) {
+                stripes[i].lock();
+                pris.push(stripes[i]);
+            }
+            return action.get();
+        } finally {
+            while (!pris.isEmpty()) {
+                pris.pop().unlock();
+            }
+        }
+    }
+
+    /**
+     * Toutes les stripes, par index croissant : aucune écriture ne peut avancer pendant l'action.
+     */
+    public <T> T avecTousLesVerrous(Supplier<T> action) {
+        int pris = 0;
+        try {
+            for (; pris < stripes.length; pris++) {
+                stripes[pris].lock();
+            }
+            return action.get();
+        } finally {
+            while (pris > 0) {
+                stripes[--pris].unlock();
+            }
+        }
+    }
+}
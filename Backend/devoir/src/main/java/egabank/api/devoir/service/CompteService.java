@@ -1,24 +1,82 @@
 package egabank.api.devoir.service;
+import egabank.api.devoir.dto.CompteResumeDTO;
+import egabank.api.devoir.dto.OperationLotDTO;
+import egabank.api.devoir.dto.ResultatOperationDTO;
 import egabank.api.devoir.entity.Compte;
 import egabank.api.devoir.entity.Transaction;
 import egabank.api.devoir.exception.SoldeInsuffisantException;
 import egabank.api.devoir.repository.CompteRepository;
 import egabank.api.devoir.repository.TransactionRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 @Service
 public class CompteService implements IcompteService {
+    private static final int TAILLE_MAX_LOT = 1000;
+
     private final CompteRepository compteRepository;
     private final TransactionRepository transactionRepository;
+    private final CompteLockStripes verrous;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitLedger ledger;
+    private final StatistiquesService statistiques;
+    private final SoldeJournalierService soldesJournaliers;
+    private final ReleveCache releveCache;
+    // Durées vues par l'appelant (attente du verrou ou du group commit comprise) et refus pour solde insuffisant
+    private final Timer dureeDepot;
+    private final Timer dureeRetrait;
+    private final Timer dureeVirement;
+    private final Counter refusRetrait;
+    private final Counter refusVirement;
+    private final Counter refusLot;
 
-    public CompteService(CompteRepository compteRepository, TransactionRepository transactionRepository) {
+    public CompteService(CompteRepository compteRepository, TransactionRepository transactionRepository,
+            CompteLockStripes verrous, PlatformTransactionManager transactionManager, GroupCommitLedger ledger,
+            StatistiquesService statistiques, SoldeJournalierService soldesJournaliers, ReleveCache releveCache,
+            MeterRegistry registry) {
         this.compteRepository = compteRepository;
         this.transactionRepository = transactionRepository;
+        this.verrous = verrous;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledger = ledger;
+        this.statistiques = statistiques;
+        this.soldesJournaliers = soldesJournaliers;
+        this.releveCache = releveCache;
+        this.dureeDepot = chrono(registry, "depot");
+        this.dureeRetrait = chrono(registry, "retrait");
+        this.dureeVirement = chrono(registry, "virement");
+        this.refusRetrait = refus(registry, "retrait");
+        this.refusVirement = refus(registry, "virement");
+        this.refusLot = refus(registry, "lot");
+    }
+
+    private static Timer chrono(MeterRegistry registry, String type) {
+        return Timer.builder("egabank.operations")
+                .description("Durée des dépôts, retraits et virements")
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter refus(MeterRegistry registry, String type) {
+        return Counter.builder("egabank.operations.solde.insuffisant")
+                .description("Opérations refusées pour solde insuffisant")
+                .tag("type", type)
+                .register(registry);
     }
 
 
@@ -27,6 +85,11 @@ public class CompteService implements IcompteService {
         return compteRepository.findAll();
     }
 
+    @Override
+    public List<CompteResumeDTO> listerResumes() {
+        return compteRepository.findResumes();
+    }
+
     @Override
     public Compte saveCompte(Compte compte){
         if (compte.getNumeroCompte() == null || compte.getNumeroCompte().isEmpty()) {
@@ -49,7 +112,18 @@ public class CompteService implements IcompteService {
             compte.getClient().setNom(compte.getClient().getNom().toUpperCase());
         }
 
-        return compteRepository.save(compte);
+        Compte ancien = compte.getId() != null ? compteRepository.findById(compte.getId()).orElse(null) : null;
+        String ancienType = ancien != null ? ancien.getTypeCompte() : null;
+        Integer ancienSolde = ancien != null ? ancien.getSolde() : null;
+        Compte enregistre = compteRepository.save(compte);
+        if (ancien != null) {
+            // Type, numéro ou titulaire figurent sur les relevés en cache
+            releveCache.invaliderCompte(enregistre.getId());
+            statistiques.compteModifie(ancienType, ancienSolde, enregistre.getTypeCompte(), enregistre.getSolde());
+        } else {
+            statistiques.compteCree(enregistre.getTypeCompte(), enregistre.getSolde());
+        }
+        return enregistre;
     }
 
     @Override
@@ -68,10 +142,30 @@ public class CompteService implements IcompteService {
                 }
             }
             compteRepository.delete(compte);
+            soldesJournaliers.supprimerCompte(id);
+            releveCache.invaliderCompte(id);
+            statistiques.compteSupprime(compte.getTypeCompte(), compte.getSolde());
         }
     }
 
+    // Le verrou est pris avant l'ouverture de la transaction et relâché après le commit :
+    // le lecteur suivant voit toujours le solde validé.
+    // En mode group commit, l'écriture passe par GroupCommitLedger qui regroupe les commits.
+    // Les méthodes executerXxx valident tout avant de modifier une entité.
     public void deposer(Long id, Integer montant, String origineFonds) {
+        dureeDepot.record(() -> {
+            if (ledger.isActif()) {
+                ledger.executer(List.of(id), () -> executerDepot(id, montant, origineFonds));
+                return;
+            }
+            verrous.avecVerrou(id, () -> transactionTemplate.execute(status -> {
+                executerDepot(id, montant, origineFonds);
+                return null;
+            }));
+        });
+    }
+
+    private void executerDepot(Long id, Integer montant, String origineFonds) {
         Compte compte = compteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Compte introuvable"));
 
@@ -101,8 +195,29 @@ public class CompteService implements IcompteService {
         }
         
         transactionRepository.save(transaction);
+        soldesJournaliers.enregistrer(id, transaction.getDateTransaction().toLocalDate(), soldeAvant, soldeApres);
+        releveCache.invalider(id, transaction.getDateTransaction().toLocalDate());
+        statistiques.operation(compte.getTypeCompte(), "DEPOT", transaction.getDateTransaction(), montant, montant);
     }
     public void retirer(Long id, Integer montant) {
+        try {
+            dureeRetrait.record(() -> {
+                if (ledger.isActif()) {
+                    ledger.executer(List.of(id), () -> executerRetrait(id, montant));
+                    return;
+                }
+                verrous.avecVerrou(id, () -> transactionTemplate.execute(status -> {
+                    executerRetrait(id, montant);
+                    return null;
+                }));
+            });
+        } catch (SoldeInsuffisantException e) {
+            refusRetrait.increment();
+            throw e;
+        }
+    }
+
+    private void executerRetrait(Long id, Integer montant) {
         Compte compte = compteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Compte introuvable"));
 
@@ -131,9 +246,29 @@ public class CompteService implements IcompteService {
         }
         
         transactionRepository.save(transaction);
+        soldesJournaliers.enregistrer(id, transaction.getDateTransaction().toLocalDate(), soldeAvant, soldeApres);
+        releveCache.invalider(id, transaction.getDateTransaction().toLocalDate());
+        statistiques.operation(compte.getTypeCompte(), "RETRAIT", transaction.getDateTransaction(), montant, -montant);
     }
-    @Transactional
     public void transferer(Long id, Integer montant, Long id2) {
+        try {
+            dureeVirement.record(() -> {
+                if (ledger.isActif()) {
+                    ledger.executer(List.of(id, id2), () -> executerVirement(id, montant, id2));
+                    return;
+                }
+                verrous.avecVerrous(id, id2, () -> transactionTemplate.execute(status -> {
+                    executerVirement(id, montant, id2);
+                    return null;
+                }));
+            });
+        } catch (SoldeInsuffisantException e) {
+            refusVirement.increment();
+            throw e;
+        }
+    }
+
+    private void executerVirement(Long id, Integer montant, Long id2) {
         Compte compteSource = compteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Compte source introuvable"));
 
@@ -144,12 +279,13 @@ public class CompteService implements IcompteService {
             throw new SoldeInsuffisantException("Solde insuffisant !");
         }
 
+        Compte compteDestination = compteRepository.findById(id2)
+                .orElseThrow(() -> new RuntimeException("Compte destination introuvable"));
+
         Integer soldeSourceAvant = compteSource.getSolde();
         Integer soldeSourceApres = soldeSourceAvant - montant;
         compteSource.setSolde(soldeSourceApres);
         compteRepository.save(compteSource);
-        Compte compteDestination = compteRepository.findById(id2)
-                .orElseThrow(() -> new RuntimeException("Compte destination introuvable"));
 
         Integer soldeDestAvant = compteDestination.getSolde();
         Integer soldeDestApres = soldeDestAvant + montant;
@@ -189,19 +325,164 @@ public class CompteService implements IcompteService {
             transactionDest.setNomClient(compteDestination.getClient().getNom() + " " + compteDestination.getClient().getPrenom());
         }
         transactionRepository.save(transactionDest);
+        soldesJournaliers.enregistrer(id, transactionSource.getDateTransaction().toLocalDate(),
+                soldeSourceAvant, soldeSourceApres);
+        soldesJournaliers.enregistrer(id2, transactionDest.getDateTransaction().toLocalDate(),
+                soldeDestAvant, soldeDestApres);
+        releveCache.invalider(id, transactionSource.getDateTransaction().toLocalDate());
+        releveCache.invalider(id2, transactionDest.getDateTransaction().toLocalDate());
+        statistiques.operation(compteSource.getTypeCompte(), "VIREMENT", transactionSource.getDateTransaction(),
+                montant, -montant);
+        statistiques.operation(compteDestination.getTypeCompte(), "VIREMENT_RECU", transactionDest.getDateTransaction(),
+                montant, montant);
     }
     public Compte updateCompte(Long id, Compte compteModifie) {
 
         Compte compteExistant = compteRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Compte introuvable"));
+        String ancienType = compteExistant.getTypeCompte();
         if (compteModifie.getTypeCompte() != null) {
             compteExistant.setTypeCompte(compteModifie.getTypeCompte().toUpperCase());
         }
         if (compteModifie.getClient() != null) {
             compteExistant.setClient(compteModifie.getClient());
         }
-        return compteRepository.save(compteExistant);
+        Compte enregistre = compteRepository.save(compteExistant);
+        releveCache.invaliderCompte(id);
+        statistiques.compteModifie(ancienType, enregistre.getSolde(), enregistre.getTypeCompte(), enregistre.getSolde());
+        return enregistre;
     }
 
 
+    // Tout le lot dans une seule transaction : un seul chargement des comptes,
+    // les INSERT de Transaction partent par lots JDBC au flush. Une opération
+    // refusée n'annule pas les autres, son motif est rendu dans le résultat.
+    @Override
+    public List<ResultatOperationDTO> traiterLot(List<OperationLotDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Le lot d'opérations est vide");
+        }
+        if (operations.size() > TAILLE_MAX_LOT) {
+            throw new IllegalArgumentException("Un lot ne peut pas dépasser " + TAILLE_MAX_LOT + " opérations");
+        }
+        Set<Long> ids = new HashSet<>();
+        for (OperationLotDTO operation : operations) {
+            if (operation != null && operation.getCompteId() != null) {
+                ids.add(operation.getCompteId());
+            }
+        }
+        return verrous.avecVerrous(ids, () -> transactionTemplate.execute(status -> executerLot(operations, ids)));
+    }
+
+    private List<ResultatOperationDTO> executerLot(List<OperationLotDTO> operations, Set<Long> ids) {
+        Map<Long, Compte> comptes = new HashMap<>();
+        for (Compte compte : compteRepository.findAllWithClientByIdIn(ids)) {
+            comptes.put(compte.getId(), compte);
+        }
+
+        List<ResultatOperationDTO> resultats = new ArrayList<>(operations.size());
+        List<Transaction> transactions = new ArrayList<>(operations.size());
+        List<ResultatOperationDTO> resultatsAcceptes = new ArrayList<>(operations.size());
+
+        for (int i = 0; i < operations.size(); i++) {
+            OperationLotDTO operation = operations.get(i);
+            ResultatOperationDTO resultat = new ResultatOperationDTO();
+            resultat.setIndex(i);
+            resultats.add(resultat);
+
+            Compte compte = operation != null && operation.getCompteId() != null
+                    ? comptes.get(operation.getCompteId()) : null;
+            String erreur = validerOperation(operation, compte);
+            if (erreur != null) {
+                resultat.setMessage(erreur);
+                continue;
+            }
+
+            String type = operation.getType().toUpperCase();
+            Integer montant = operation.getMontant();
+            Integer soldeAvant = compte.getSolde();
+            Integer soldeApres = "DEPOT".equals(type) ? soldeAvant + montant : soldeAvant - montant;
+            // Compte est géré par le contexte de persistance : l'UPDATE part au flush
+            compte.setSolde(soldeApres);
+
+            transactions.add(nouvelleTransaction(compte, type, montant, soldeAvant, soldeApres,
+                    "DEPOT".equals(type) ? operation.getOrigineFonds() : null));
+            resultat.setSucces(true);
+            resultat.setSoldeApres(soldeApres);
+            resultatsAcceptes.add(resultat);
+        }
+
+        transactionRepository.saveAll(transactions);
+        enregistrerSoldesJournaliers(transactions);
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            resultatsAcceptes.get(i).setTransactionId(transaction.getId());
+            int montant = transaction.getMontant();
+            statistiques.operation(transaction.getCompte().getTypeCompte(), transaction.getType(),
+                    transaction.getDateTransaction(), montant, "DEPOT".equals(transaction.getType()) ? montant : -montant);
+        }
+        return resultats;
+    }
+
+    // Une seule mise à jour par compte et par jour : premier solde avant, dernier solde après
+    private void enregistrerSoldesJournaliers(List<Transaction> transactions) {
+        Map<String, Transaction[]> bornes = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            String cle = transaction.getCompte().getId() + "|" + transaction.getDateTransaction().toLocalDate();
+            bornes.computeIfAbsent(cle, k -> new Transaction[] {transaction, transaction})[1] = transaction;
+        }
+        for (Transaction[] b : bornes.values()) {
+            soldesJournaliers.enregistrer(b[0].getCompte().getId(), b[0].getDateTransaction().toLocalDate(),
+                    b[0].getMontantAvant(), b[1].getMontantApres());
+            releveCache.invalider(b[0].getCompte().getId(), b[0].getDateTransaction().toLocalDate());
+        }
+    }
+
+    private String validerOperation(OperationLotDTO operation, Compte compte) {
+        if (operation == null || operation.getType() == null) {
+            return "Type d'opération obligatoire";
+        }
+        if (compte == null) {
+            return "Compte introuvable";
+        }
+        Integer montant = operation.getMontant();
+        switch (operation.getType().toUpperCase()) {
+            case "DEPOT":
+                if (montant == null || montant <= 0) {
+                    return "Montant de dépôt invalide";
+                }
+                if (operation.getOrigineFonds() == null || operation.getOrigineFonds().trim().isEmpty()) {
+                    return "L'origine des fonds est obligatoire pour un dépôt";
+                }
+                return null;
+            case "RETRAIT":
+                if (montant == null || montant <= 0) {
+                    return "Montant invalide";
+                }
+                if (compte.getSolde() < montant) {
+                    refusLot.increment();
+                    return "Solde insuffisant !";
+                }
+                return null;
+            default:
+                return "Type d'opération inconnu : " + operation.getType();
+        }
+    }
+
+    private Transaction nouvelleTransaction(Compte compte, String type, Integer montant,
+            Integer soldeAvant, Integer soldeApres, String origineFonds) {
+        Transaction transaction = new Transaction();
+        transaction.setDateTransaction(LocalDateTime.now());
+        transaction.setType(type);
+        transaction.setMontantAvant(soldeAvant);
+        transaction.setMontantApres(soldeApres);
+        transaction.setMontant(montant);
+        transaction.setOrigineFonds(origineFonds);
+        transaction.setCompte(compte);
+        transaction.setNumeroCompte(compte.getNumeroCompte());
+        if (compte.getClient() != null) {
+            transaction.setNomClient(compte.getClient().getNom() + " " + compte.getClient().getPrenom());
+        }
+        return transaction;
+    }
 }
@@ -0,0 +1,240 @@
+package egabank.api.devoir.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Écrivain unique en mode "group commit" : les écritures déposées dans une file bornée
+ * sont regroupées pendant quelques millisecondes puis appliquées dans une seule
+ * transaction (INSERT par lots JDBC, un seul commit). L'appelant n'est libéré
+ * qu'après le commit. Désactivé par défaut (egabank.posting.group-commit.enabled).
+ */
+@Component
+public class GroupCommitLedger implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitLedger.class);
+
+    private final CompteLockStripes verrous;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean actif;
+    private final long fenetreNanos;
+    private final int tailleMaxGroupe;
+    private final long delaiCommitMs;
+    private final BlockingQueue<Ecriture> file;
+    private final AtomicLong commits = new AtomicLong();
+    private volatile boolean arrete;
+    private Thread ecrivain;
+
+    public GroupCommitLedger(CompteLockStripes verrous, PlatformTransactionManager transactionManager,
+            @Value("${egabank.posting.group-commit.enabled:false}") boolean actif,
+            @Value("${egabank.posting.group-commit.window-ms:2}") long fenetreMs,
+            @Value("${egabank.posting.group-commit.max-batch:200}") int tailleMaxGroupe,
+            @Value("${egabank.posting.group-commit.queue-capacity:10000}") int capaciteFile,
+            @Value("${egabank.posting.group-commit.commit-timeout-ms:30000}") long delaiCommitMs) {
+        this.verrous = verrous;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.actif = actif;
+        this.fenetreNanos = TimeUnit.MILLISECONDS.toNanos(fenetreMs);
+        this.tailleMaxGroupe = tailleMaxGroupe;
+        this.file = new ArrayBlockingQueue<>(capaciteFile);
+        this.delaiCommitMs = delaiCommitMs;
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    public long getNombreCommits() {
+        return commits.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("egabank.posting.group-commit.file", file, BlockingQueue::size)
+            .description("Écritures en attente du prochain group commit")
+            .register(registry);
+        FunctionCounter.builder("egabank.posting.group-commit.commits", commits, AtomicLong::get)
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void demarrer() {
+        if (!actif) {
+            return;
+        }
+        ecrivain = new Thread(this::boucle, "group-commit-ledger");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    @PreDestroy
+    public void arreter() {
+        arrete = true;
+        if (ecrivain != null) {
+            ecrivain.interrupt();
+        }
+    }
+
+    /**
+     * Soumet une écriture et bloque jusqu'à son commit. L'écriture doit valider
+     * ses entrées avant de modifier une entité : une écriture refusée ne doit rien
+     * laisser dans le contexte de persistance partagé par le groupe.
+     * Délai dépassé ou interruption : l'écriture est annulée si l'écrivain ne l'a pas encore
+     * prise, sinon son issue est attendue. Une exception garantit donc qu'elle ne sera pas
+     * appliquée (la clé d'idempotence peut être libérée sans risque de double écriture).
+     */
+    public void executer(Collection<Long> compteIds, Runnable operation) {
+        Ecriture ecriture = new Ecriture(compteIds, operation);
+        try {
+            if (!file.offer(ecriture, 5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("File d'écriture saturée, réessayez plus tard");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Écriture interrompue", e);
+        }
+        boolean interrompu = false;
+        try {
+            ecriture.resultat.get(delaiCommitMs, TimeUnit.MILLISECONDS);
+            return;
+        } catch (InterruptedException e) {
+            interrompu = true;
+            if (ecriture.annuler()) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Écriture interrompue", e);
+            }
+        } catch (TimeoutException e) {
+            if (ecriture.annuler()) {
+                throw new IllegalStateException("Délai dépassé en attente du commit", e);
+            }
+        } catch (ExecutionException e) {
+            throw relancer(e.getCause());
+        }
+        // Déjà prise par l'écrivain : commit ou rollback en cours, on attend l'issue
+        try {
+            ecriture.resultat.join();
+        } catch (CompletionException e) {
+            throw relancer(e.getCause());
+        } finally {
+            if (interrompu) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException relancer(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private void boucle() {
+        List<Ecriture> groupe = new ArrayList<>(tailleMaxGroupe);
+        while (!arrete) {
+            try {
+                groupe.add(file.take());
+                long limite = System.nanoTime() + fenetreNanos;
+                while (groupe.size() < tailleMaxGroupe) {
+                    long restant = limite - System.nanoTime();
+                    Ecriture suivante = restant > 0 ? file.poll(restant, TimeUnit.NANOSECONDS) : file.poll();
+                    if (suivante == null) {
+                        break;
+                    }
+                    groupe.add(suivante);
+                }
+                appliquer(groupe);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Échec du commit groupé ({} écritures)", groupe.size(), e);
+                for (Ecriture ecriture : groupe) {
+                    ecriture.resultat.completeExceptionally(e);
+                }
+            } finally {
+                groupe.clear();
+            }
+        }
+    }
+
+    private void appliquer(List<Ecriture> groupe) {
+        // Écritures abandonnées par leur appelant (délai dépassé) : ignorées
+        List<Ecriture> prises = new ArrayList<>(groupe.size());
+        Set<Long> ids = new HashSet<>();
+        for (Ecriture ecriture : groupe) {
+            if (ecriture.prendre()) {
+                prises.add(ecriture);
+                ids.addAll(ecriture.compteIds);
+            }
+        }
+        if (prises.isEmpty()) {
+            return;
+        }
+        List<Ecriture> acceptees = new ArrayList<>(prises.size());
+        verrous.avecVerrous(ids, () -> transactionTemplate.execute(status -> {
+            for (Ecriture ecriture : prises) {
+                try {
+                    ecriture.operation.run();
+                    acceptees.add(ecriture);
+                } catch (RuntimeException e) {
+                    ecriture.resultat.completeExceptionally(e);
+                }
+            }
+            return null;
+        }));
+        commits.incrementAndGet();
+        for (Ecriture ecriture : acceptees) {
+            ecriture.resultat.complete(null);
+        }
+    }
+
+    private static final class Ecriture {
+        private static final int EN_ATTENTE = 0;
+        private static final int PRISE = 1;
+        private static final int ANNULEE = 2;
+
+        private final Collection<Long> compteIds;
+        private final Runnable operation;
+        private final CompletableFuture<Void> resultat = new CompletableFuture<>();
+        // Prise par l'écrivain ou annulée par l'appelant : le premier des deux gagne
+        private final AtomicInteger etat = new AtomicInteger(EN_ATTENTE);
+
+        private Ecriture(Collection<Long> compteIds, Runnable operation) {
+            this.compteIds = compteIds;
+            this.operation = operation;
+        }
+
+        private boolean prendre() {
+            return etat.compareAndSet(EN_ATTENTE, PRISE);
+        }
+
+        private boolean annuler() {
+            return etat.compareAndSet(EN_ATTENTE, ANNULEE);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package egabank.api.devoir.service;
 
 
+import egabank.api.devoir.dto.ClientResumeDTO;
 import egabank.api.devoir.entity.Client;
 
 import java.util.List;
 
 public interface IclientService {
     List<Client> showClient();
+    List<ClientResumeDTO> listerResumes();
     public Client getOneClient(Long id);
     public Client saveClient(Client client);
     public void deleteClient(Long id);
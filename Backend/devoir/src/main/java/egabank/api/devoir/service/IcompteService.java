@@ -1,10 +1,14 @@
 package egabank.api.devoir.service;
 
+import egabank.api.devoir.dto.CompteResumeDTO;
+import egabank.api.devoir.dto.OperationLotDTO;
+import egabank.api.devoir.dto.ResultatOperationDTO;
 import egabank.api.devoir.entity.Compte;
 import java.util.List;
 
 public interface IcompteService {
     List<Compte> showCompte();
+    List<CompteResumeDTO> listerResumes();
     public Compte getOneCompte(Long id);
     public Compte saveCompte(Compte compte);
     public void deleteCompte(Long id);
@@ -12,5 +16,6 @@ public interface IcompteService {
     public void retirer(Long id, Integer montant);
     public void transferer(Long id, Integer montant, Long id2);
     public Compte updateCompte(Long id, Compte compteModifie);
+    public List<ResultatOperationDTO> traiterLot(List<OperationLotDTO> operations);
 
 }
@@ -0,0 +1,136 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.exception.IdempotenceConflitException;
+import egabank.api.devoir.exception.SoldeInsuffisantException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Mémoire bornée des clés Idempotency-Key déjà vues. Une requête rejouée reçoit le résultat
+ * d'origine sans réexécuter l'opération ; deux requêtes identiques simultanées n'exécutent
+ * l'opération qu'une fois, la seconde attend le résultat de la première.
+ * Seuls les succès et les refus métier sont mémorisés, une erreur technique libère la clé.
+ */
+@Component
+public class IdempotenceStore {
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+    // Les entrées expirent dans leur ordre d'insertion (TTL constant)
+    private final Queue<Entree> ordre = new ConcurrentLinkedQueue<>();
+    private final long ttlNanos;
+    private final int tailleMax;
+
+    public IdempotenceStore(@Value("${egabank.idempotence.ttl-seconds:86400}") long ttlSecondes,
+            @Value("${egabank.idempotence.max-entries:100000}") int tailleMax) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSecondes);
+        this.tailleMax = tailleMax;
+    }
+
+    public void executer(String cle, String empreinte, Runnable operation) {
+        if (cle == null || cle.isBlank()) {
+            operation.run();
+            return;
+        }
+        while (true) {
+            Entree nouvelle = new Entree(cle, empreinte, System.nanoTime() + ttlNanos);
+            Entree existante = entrees.putIfAbsent(cle, nouvelle);
+            if (existante == null) {
+                ordre.add(nouvelle);
+                purger();
+                executerPremiere(nouvelle, operation);
+                return;
+            }
+            if (existante.estExpiree(System.nanoTime())) {
+                entrees.remove(cle, existante);
+                continue;
+            }
+            if (!existante.empreinte.equals(empreinte)) {
+                throw new IdempotenceConflitException("Clé d'idempotence déjà utilisée pour une autre requête");
+            }
+            if (rejouer(existante)) {
+                return;
+            }
+        }
+    }
+
+    public int taille() {
+        return entrees.size();
+    }
+
+    private void executerPremiere(Entree entree, Runnable operation) {
+        try {
+            operation.run();
+            entree.resultat.complete(null);
+        } catch (SoldeInsuffisantException | IllegalArgumentException e) {
+            entree.resultat.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            entrees.remove(entree.cle, entree);
+            entree.resultat.completeExceptionally(new CleLibereeException());
+            throw e;
+        }
+    }
+
+    // false si la première exécution a échoué techniquement : l'appelant retente avec la clé libérée
+    private boolean rejouer(Entree entree) {
+        try {
+            entree.resultat.get(30, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CleLibereeException) {
+                return false;
+            }
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente interrompue", e);
+        } catch (TimeoutException e) {
+            throw new IdempotenceConflitException("Une requête avec la même clé d'idempotence est en cours");
+        }
+    }
+
+    private void purger() {
+        long maintenant = System.nanoTime();
+        Entree tete;
+        while ((tete = ordre.peek()) != null) {
+            boolean depassement = entrees.size() > tailleMax && tete.resultat.isDone();
+            if (!tete.estExpiree(maintenant) && !depassement) {
+                break;
+            }
+            if (ordre.remove(tete)) {
+                entrees.remove(tete.cle, tete);
+            }
+        }
+    }
+
+    private static final class Entree {
+        private final String cle;
+        private final String empreinte;
+        private final long expireA;
+        private final CompletableFuture<Void> resultat = new CompletableFuture<>();
+
+        private Entree(String cle, String empreinte, long expireA) {
+            this.cle = cle;
+            this.empreinte = empreinte;
+            this.expireA = expireA;
+        }
+
+        private boolean estExpiree(long maintenant) {
+            return maintenant - expireA > 0;
+        }
+    }
+
+    private static final class CleLibereeException extends RuntimeException {
+        private CleLibereeException() {
+            super(null, null, false, false);
+        }
+    }
+}
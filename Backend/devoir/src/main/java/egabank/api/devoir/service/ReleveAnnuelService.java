@@ -0,0 +1,168 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.ReleveDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Archive ZIP des relevés mensuels d'une période. Les mois sont rendus en parallèle sur un pool
+ * dédié, dans une fenêtre glissante de la taille du pool, et écrits dans l'archive dans l'ordre
+ * des mois dès que chacun est prêt : seuls les PDF de la fenêtre sont en mémoire, jamais l'archive.
+ * Les relevés déjà en cache sont repris tels quels, ceux rendus ici sont ajoutés au cache.
+ */
+@Service
+public class ReleveAnnuelService implements MeterBinder {
+
+    private final ReleveService releveService;
+    private final ReleveCache releveCache;
+    private final ExecutorService pool;
+    private final int fenetre;
+
+    public ReleveAnnuelService(ReleveService releveService, ReleveCache releveCache,
+            @Value("${egabank.releves.annuel.workers:0}") int workers) {
+        this.releveService = releveService;
+        this.releveCache = releveCache;
+        this.fenetre = workers > 0 ? workers : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numero = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(fenetre, r -> {
+            Thread t = new Thread(r, "releve-annuel-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Clés de cache des mois de la période, mêmes bornes que obtenirResumesMensuels. À calculer avant
+     * les résumés : une opération arrivée entre-temps change la clé, et le PDF rendu ne peut pas être
+     * publié sous une clé plus récente que ses totaux.
+     */
+    public List<ReleveCache.Cle> cles(Long compteId, LocalDate dateDebut, LocalDate dateFin) {
+        List<ReleveCache.Cle> cles = new ArrayList<>();
+        LocalDate debut = dateDebut;
+        while (!debut.isAfter(dateFin)) {
+            YearMonth mois = YearMonth.from(debut);
+            LocalDate fin = mois.atEndOfMonth().isBefore(dateFin) ? mois.atEndOfMonth() : dateFin;
+            cles.add(releveCache.cle(compteId, debut, fin));
+            debut = fin.plusDays(1);
+        }
+        return cles;
+    }
+
+    /**
+     * Écrit dans "sortie" (laissée ouverte) une entrée releve_&lt;numéro&gt;_&lt;yyyy-MM&gt;.pdf par relevé,
+     * dans l'ordre de "releves" (obtenirResumesMensuels), chacun sous la clé de même rang de "cles".
+     * Les PDF, déjà compressés, sont stockés sans recompression. Une erreur d'écriture (client parti)
+     * annule les rendus restants.
+     */
+    public void ecrireZip(List<ReleveDTO> releves, List<ReleveCache.Cle> cles, OutputStream sortie) throws IOException {
+        if (cles.size() != releves.size()) {
+            throw new IllegalArgumentException("Une clé de cache par relevé mensuel");
+        }
+        Deque<CompletableFuture<byte[]>> enCours = new ArrayDeque<>();
+        int suivant = 0;
+        ZipOutputStream zip = new ZipOutputStream(sortie);
+        try {
+            for (ReleveDTO releve : releves) {
+                while (suivant < releves.size() && enCours.size() < fenetre) {
+                    ReleveDTO aRendre = releves.get(suivant);
+                    ReleveCache.Cle cle = cles.get(suivant++);
+                    enCours.add(CompletableFuture.supplyAsync(() -> pdf(aRendre, cle), pool));
+                }
+                byte[] pdf = attendre(enCours.poll());
+                ZipEntry entree = new ZipEntry("releve_" + releve.getCompte().getNumeroCompte() + "_"
+                    + releve.getDateDebut().toString().substring(0, 7) + ".pdf");
+                CRC32 crc = new CRC32();
+                crc.update(pdf);
+                entree.setMethod(ZipEntry.STORED);
+                entree.setSize(pdf.length);
+                entree.setCompressedSize(pdf.length);
+                entree.setCrc(crc.getValue());
+                zip.putNextEntry(entree);
+                zip.write(pdf);
+                zip.closeEntry();
+                // Chaque mois part dès qu'il est prêt
+                zip.flush();
+            }
+            zip.finish();
+        } finally {
+            // Les mois pas encore commencés ne seront pas rendus
+            for (CompletableFuture<byte[]> f : enCours) {
+                f.cancel(false);
+            }
+        }
+    }
+
+    private static byte[] attendre(Future<byte[]> futur) throws IOException {
+        try {
+            return futur.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Archive des relevés interrompue");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    private byte[] pdf(ReleveDTO releve, ReleveCache.Cle cle) {
+        try {
+            ReleveCache.PdfEnCache enCache = releveCache.trouver(cle);
+            if (enCache != null) {
+                if (enCache.getContenu() != null) {
+                    return enCache.getContenu();
+                }
+                try {
+                    return Files.readAllBytes(enCache.getFichier());
+                } catch (NoSuchFileException e) {
+                    // Évincé entre-temps : rendu ci-dessous
+                }
+            }
+            ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+            releveCache.generer(cle, sortie, s -> releveService.ecrireRelevePdf(releve, s));
+            return sortie.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(pool, "releve-annuel", Tags.empty()).bindTo(registry);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,384 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Cache des relevés PDF générés, adressé par contenu : la clé (compte, période, id de la dernière
+ * transaction de la période) change dès qu'une écriture entre dans la période, un PDF trouvé en
+ * cache est donc toujours celui qu'on générerait. Deux niveaux bornés en octets et évincés LRU :
+ * les petits PDF récemment générés en mémoire, tous les PDF sur disque (un fichier par clé).
+ * Une écriture commitée supprime aussi tout de suite les entrées de son compte devenues inaccessibles.
+ */
+@Component
+public class ReleveCache {
+    private static final Logger log = LoggerFactory.getLogger(ReleveCache.class);
+
+    private final TransactionRepository transactionRepository;
+    private final boolean actif;
+    private final Path repertoire;
+    private final long maxOctetsDisque;
+    private final long maxOctetsMemoire;
+    private final long maxOctetsEntreeMemoire;
+
+    // Protégés par "this". LinkedHashMap en ordre d'accès : la première entrée est la moins récemment utilisée
+    private final LinkedHashMap<Cle, Long> disque = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<Cle, byte[]> memoire = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, Set<Cle>> parCompte = new HashMap<>();
+    private long octetsDisque;
+    private long octetsMemoire;
+
+    private final LongAdder succesMemoire = new LongAdder();
+    private final LongAdder succesDisque = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+
+    public ReleveCache(TransactionRepository transactionRepository,
+            @Value("${egabank.releves.cache.enabled:true}") boolean actif,
+            @Value("${egabank.releves.cache.directory:}") String repertoire,
+            @Value("${egabank.releves.cache.max-disk-mb:512}") long maxDisqueMo,
+            @Value("${egabank.releves.cache.max-memory-mb:32}") long maxMemoireMo,
+            @Value("${egabank.releves.cache.max-memory-entry-kb:1024}") long maxEntreeMemoireKo) {
+        this.transactionRepository = transactionRepository;
+        this.actif = actif;
+        this.repertoire = repertoire == null || repertoire.isBlank()
+            ? Path.of(System.getProperty("java.io.tmpdir"), "egabank-releves")
+            : Path.of(repertoire);
+        this.maxOctetsDisque = maxDisqueMo << 20;
+        this.maxOctetsMemoire = maxMemoireMo << 20;
+        this.maxOctetsEntreeMemoire = maxEntreeMemoireKo << 10;
+        if (actif) {
+            vider();
+        }
+    }
+
+    // Les ids de transactions ne survivent pas à un redémarrage (base en mémoire) : on repart d'un répertoire vide
+    private void vider() {
+        try {
+            Files.createDirectories(repertoire);
+            try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(repertoire, "*.{pdf,tmp}")) {
+                for (Path fichier : fichiers) {
+                    Files.deleteIfExists(fichier);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Répertoire du cache des relevés inutilisable : " + repertoire, e);
+        }
+    }
+
+    public boolean estActif() {
+        return actif;
+    }
+
+    public Cle cle(Long compteId, LocalDate dateDebut, LocalDate dateFin) {
+        Long derniere = transactionRepository.derniereTransactionPeriode(compteId,
+            dateDebut.atStartOfDay(), dateFin.atTime(LocalTime.MAX));
+        return new Cle(compteId, dateDebut, dateFin, derniere == null ? 0 : derniere);
+    }
+
+    /**
+     * PDF en cache pour cette clé (contenu en mémoire, sinon fichier), ou null.
+     */
+    public PdfEnCache trouver(Cle cle) {
+        if (!actif) {
+            return null;
+        }
+        Long taille;
+        synchronized (this) {
+            byte[] contenu = memoire.get(cle);
+            if (contenu != null) {
+                disque.get(cle);
+                succesMemoire.increment();
+                return new PdfEnCache(contenu, null, contenu.length);
+            }
+            taille = disque.get(cle);
+        }
+        if (taille != null) {
+            Path fichier = repertoire.resolve(cle.nomFichier());
+            if (Files.isRegularFile(fichier)) {
+                succesDisque.increment();
+                return new PdfEnCache(null, fichier, taille);
+            }
+            // Fichier supprimé hors du cache : l'entrée est oubliée, le relevé sera régénéré
+            synchronized (this) {
+                retirer(cle);
+            }
+        }
+        echecs.increment();
+        return null;
+    }
+
+    /**
+     * Génère le relevé dans "sortie" et, au même passage, dans un fichier temporaire du cache.
+     * L'entrée n'est publiée que si le rendu va jusqu'au bout ; sinon le fichier est supprimé.
+     */
+    public void generer(Cle cle, OutputStream sortie, Consumer<OutputStream> rendu) throws IOException {
+        if (!actif) {
+            rendu.accept(sortie);
+            return;
+        }
+        Path temporaire = Files.createTempFile(repertoire, "rendu-", ".tmp");
+        Duplication duplication;
+        try (OutputStream fichier = new BufferedOutputStream(Files.newOutputStream(temporaire), 64 * 1024)) {
+            duplication = new Duplication(sortie, fichier, maxOctetsEntreeMemoire);
+            rendu.accept(duplication);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaire);
+            throw e;
+        }
+        publier(cle, temporaire, duplication.copie == null ? null : duplication.copie.toByteArray());
+    }
+
+    private void publier(Cle cle, Path temporaire, byte[] contenu) throws IOException {
+        Path fichier = repertoire.resolve(cle.nomFichier());
+        // Deux générations simultanées de la même clé produisent le même contenu : la seconde remplace la première
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long taille = Files.size(fichier);
+        List<Path> aSupprimer = new ArrayList<>();
+        synchronized (this) {
+            Long ancienne = disque.put(cle, taille);
+            octetsDisque += taille - (ancienne == null ? 0 : ancienne);
+            parCompte.computeIfAbsent(cle.compteId, k -> new HashSet<>()).add(cle);
+            if (contenu != null) {
+                byte[] ancien = memoire.put(cle, contenu);
+                octetsMemoire += contenu.length - (ancien == null ? 0 : ancien.length);
+            }
+            while (octetsDisque > maxOctetsDisque && !disque.isEmpty()) {
+                aSupprimer.add(retirer(disque.keySet().iterator().next()));
+            }
+            Iterator<Map.Entry<Cle, byte[]>> it = memoire.entrySet().iterator();
+            while (octetsMemoire > maxOctetsMemoire && it.hasNext()) {
+                octetsMemoire -= it.next().getValue().length;
+                it.remove();
+            }
+        }
+        supprimer(aSupprimer);
+    }
+
+    /**
+     * Une écriture du "jour" sur le compte : les relevés en cache dont la période contient ce jour
+     * ne seront plus jamais demandés sous leur clé. Appliqué au commit, ignoré au rollback.
+     */
+    public void invalider(Long compteId, LocalDate jour) {
+        if (!actif) {
+            return;
+        }
+        apresCommit(() -> {
+            List<Path> aSupprimer = new ArrayList<>();
+            synchronized (this) {
+                Set<Cle> cles = parCompte.get(compteId);
+                if (cles == null) {
+                    return;
+                }
+                for (Cle cle : new ArrayList<>(cles)) {
+                    if (!jour.isBefore(cle.dateDebut) && !jour.isAfter(cle.dateFin)) {
+                        aSupprimer.add(retirer(cle));
+                    }
+                }
+            }
+            supprimer(aSupprimer);
+        });
+    }
+
+    public void invaliderCompte(Long compteId) {
+        if (!actif) {
+            return;
+        }
+        List<Path> aSupprimer = new ArrayList<>();
+        synchronized (this) {
+            Set<Cle> cles = parCompte.get(compteId);
+            if (cles != null) {
+                for (Cle cle : new ArrayList<>(cles)) {
+                    aSupprimer.add(retirer(cle));
+                }
+            }
+        }
+        supprimer(aSupprimer);
+    }
+
+    // Sous le verrou ; retourne le fichier à supprimer une fois le verrou relâché
+    private Path retirer(Cle cle) {
+        Long taille = disque.remove(cle);
+        if (taille != null) {
+            octetsDisque -= taille;
+        }
+        byte[] contenu = memoire.remove(cle);
+        if (contenu != null) {
+            octetsMemoire -= contenu.length;
+        }
+        Set<Cle> cles = parCompte.get(cle.compteId);
+        if (cles != null && cles.remove(cle) && cles.isEmpty()) {
+            parCompte.remove(cle.compteId);
+        }
+        return repertoire.resolve(cle.nomFichier());
+    }
+
+    private static void supprimer(List<Path> fichiers) {
+        for (Path fichier : fichiers) {
+            try {
+                Files.deleteIfExists(fichier);
+            } catch (IOException e) {
+                log.warn("Relevé en cache non supprimé : {}", fichier, e);
+            }
+        }
+    }
+
+    private static void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public synchronized int nombreEntrees() {
+        return disque.size();
+    }
+
+    public synchronized long octetsDisque() {
+        return octetsDisque;
+    }
+
+    public synchronized long octetsMemoire() {
+        return octetsMemoire;
+    }
+
+    public long succesMemoire() {
+        return succesMemoire.sum();
+    }
+
+    public long succesDisque() {
+        return succesDisque.sum();
+    }
+
+    public long echecs() {
+        return echecs.sum();
+    }
+
+    public static final class Cle {
+        private final Long compteId;
+        private final LocalDate dateDebut;
+        private final LocalDate dateFin;
+        private final long derniereTransaction;
+
+        public Cle(Long compteId, LocalDate dateDebut, LocalDate dateFin, long derniereTransaction) {
+            this.compteId = compteId;
+            this.dateDebut = dateDebut;
+            this.dateFin = dateFin;
+            this.derniereTransaction = derniereTransaction;
+        }
+
+        String nomFichier() {
+            return compteId + "_" + dateDebut + "_" + dateFin + "_" + derniereTransaction + ".pdf";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) o;
+            return derniereTransaction == autre.derniereTransaction && compteId.equals(autre.compteId)
+                && dateDebut.equals(autre.dateDebut) && dateFin.equals(autre.dateFin);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(compteId, dateDebut, dateFin, derniereTransaction);
+        }
+    }
+
+    // Exactement un des deux est renseigné
+    public static final class PdfEnCache {
+        private final byte[] contenu;
+        private final Path fichier;
+        private final long taille;
+
+        private PdfEnCache(byte[] contenu, Path fichier, long taille) {
+            this.contenu = contenu;
+            this.fichier = fichier;
+            this.taille = taille;
+        }
+
+        public byte[] getContenu() {
+            return contenu;
+        }
+
+        public Path getFichier() {
+            return fichier;
+        }
+
+        public long getTaille() {
+            return taille;
+        }
+    }
+
+    // Écrit dans la réponse et dans le fichier du cache ; garde une copie en mémoire tant que le PDF reste petit
+    private static final class Duplication extends OutputStream {
+        private final OutputStream sortie;
+        private final OutputStream fichier;
+        private final long maxCopie;
+        private ByteArrayOutputStream copie = new ByteArrayOutputStream();
+
+        private Duplication(OutputStream sortie, OutputStream fichier, long maxCopie) {
+            this.sortie = sortie;
+            this.fichier = fichier;
+            this.maxCopie = maxCopie;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            sortie.write(b, off, len);
+            fichier.write(b, off, len);
+            if (copie != null) {
+                if (copie.size() + len > maxCopie) {
+                    copie = null;
+                } else {
+                    copie.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            sortie.flush();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.CompteConsolideDTO;
+import egabank.api.devoir.dto.LigneConsolideeDTO;
+import egabank.api.devoir.dto.LigneReleveDTO;
+import egabank.api.devoir.dto.ReleveConsolideDTO;
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.repository.ClientRepository;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Relevé consolidé d'un client : les opérations de tous ses comptes en une seule vue chronologique.
+ * Chaque compte est lu par pages de clé (date, id) croissante et les flux sont fusionnés (fusion à k
+ * voies sur une file de priorité) : une seule page par compte est en mémoire, quel que soit l'historique.
+ */
+@Service
+public class ReleveConsolideService {
+    static final int TAILLE_PAGE = 500;
+
+    private static final Comparator<Curseur> ORDRE = Comparator
+        .comparing((Curseur c) -> c.courante().getDateTransaction())
+        .thenComparing(c -> c.courante().getId());
+
+    private final ReleveService releveService;
+    private final ClientRepository clientRepository;
+    private final CompteRepository compteRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    public ReleveConsolideService(ReleveService releveService, ClientRepository clientRepository,
+            CompteRepository compteRepository, TransactionRepository transactionRepository,
+            ObjectMapper objectMapper) {
+        this.releveService = releveService;
+        this.clientRepository = clientRepository;
+        this.compteRepository = compteRepository;
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * En-tête du relevé : sous-totaux et soldes de chaque compte (résumés SQL), totaux du client.
+     */
+    public ReleveConsolideDTO obtenirResume(Long clientId, LocalDate dateDebut, LocalDate dateFin) {
+        Client client = clientRepository.findById(clientId)
+            .orElseThrow(() -> new RuntimeException("Client non trouvé"));
+        List<CompteConsolideDTO> comptes = new ArrayList<>();
+        int nombre = 0;
+        long credits = 0, debits = 0, soldeDebut = 0, soldeFin = 0;
+        for (Long compteId : compteRepository.findIdsByClientId(clientId)) {
+            ReleveDTO r = releveService.obtenirResumeReleve(compteId, dateDebut, dateFin);
+            comptes.add(new CompteConsolideDTO(compteId, r.getCompte().getNumeroCompte(), r.getCompte().getTypeCompte(),
+                r.getNombreTransactions(), r.getTotalCredits(), r.getTotalDebits(), r.getSoldeDebut(), r.getSoldeFin()));
+            nombre += r.getNombreTransactions();
+            credits += r.getTotalCredits();
+            debits += r.getTotalDebits();
+            soldeDebut += r.getSoldeDebut();
+            soldeFin += r.getSoldeFin();
+        }
+        return new ReleveConsolideDTO(client.getId(), client.getNom(), client.getPrenom(), client.getAdresse(),
+            dateDebut, dateFin, comptes, nombre, credits, debits, soldeDebut, soldeFin);
+    }
+
+    /**
+     * Opérations de la période, tous comptes confondus, par (date, id) croissant, avec les soldes
+     * courants du compte et du client. Les pages sont lues à la demande pendant le parcours.
+     */
+    public Iterator<LigneConsolideeDTO> lignes(ReleveConsolideDTO releve) {
+        return new Fusion(releve);
+    }
+
+    /**
+     * Écrit {"releve": en-tête, "transactions": [...]} dans "sortie" (laissée ouverte), ligne après ligne.
+     */
+    public void ecrireJson(ReleveConsolideDTO releve, OutputStream sortie) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(sortie, 64 * 1024);
+        out.write("{\"releve\":".getBytes(StandardCharsets.UTF_8));
+        out.write(objectMapper.writeValueAsBytes(releve));
+        out.write(",\"transactions\":[".getBytes(StandardCharsets.UTF_8));
+        Iterator<LigneConsolideeDTO> lignes = lignes(releve);
+        long n = 0;
+        while (lignes.hasNext()) {
+            if (n > 0) {
+                out.write(',');
+            }
+            out.write(objectMapper.writeValueAsBytes(lignes.next()));
+            if (++n % TAILLE_PAGE == 0) {
+                out.flush();
+            }
+        }
+        out.write("]}".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    // Fusion à k voies : la tête de file est le compte dont l'opération courante est la plus ancienne
+    private final class Fusion implements Iterator<LigneConsolideeDTO> {
+        private final PriorityQueue<Curseur> file = new PriorityQueue<>(ORDRE);
+        private long soldeTotal;
+
+        private Fusion(ReleveConsolideDTO releve) {
+            LocalDateTime depuis = releve.getDateDebut().atStartOfDay();
+            LocalDateTime jusqua = releve.getDateFin().atTime(LocalTime.MAX);
+            soldeTotal = releve.getSoldeDebut();
+            for (CompteConsolideDTO compte : releve.getComptes()) {
+                Curseur curseur = new Curseur(compte, depuis, jusqua);
+                if (curseur.avancer()) {
+                    file.add(curseur);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !file.isEmpty();
+        }
+
+        @Override
+        public LigneConsolideeDTO next() {
+            Curseur curseur = file.poll();
+            if (curseur == null) {
+                throw new NoSuchElementException();
+            }
+            LigneReleveDTO t = curseur.courante();
+            boolean credit = t.getType().equals("DEPOT") || t.getType().equals("VIREMENT_RECU");
+            int montant = t.getMontant() != null ? t.getMontant() : 0;
+            curseur.solde += credit ? montant : -montant;
+            soldeTotal += credit ? montant : -montant;
+            LigneConsolideeDTO ligne = new LigneConsolideeDTO(t.getId(), t.getDateTransaction(),
+                curseur.compte.getCompteId(), curseur.compte.getNumeroCompte(), t.getType(), t.getMontant(),
+                curseur.solde, soldeTotal);
+            if (curseur.avancer()) {
+                file.add(curseur);
+            }
+            return ligne;
+        }
+    }
+
+    // Position dans le flux d'un compte : la page en cours et la clé de la dernière ligne lue
+    private final class Curseur {
+        private final CompteConsolideDTO compte;
+        private final LocalDateTime jusqua;
+        private LocalDateTime date;
+        private Long id = Long.MIN_VALUE;
+        private List<LigneReleveDTO> page = List.of();
+        private int position = -1;
+        private boolean dernierePage;
+        private int solde;
+
+        private Curseur(CompteConsolideDTO compte, LocalDateTime depuis, LocalDateTime jusqua) {
+            this.compte = compte;
+            this.jusqua = jusqua;
+            this.date = depuis;
+            this.solde = compte.getSoldeDebut();
+        }
+
+        private LigneReleveDTO courante() {
+            return page.get(position);
+        }
+
+        // Passe à la ligne suivante, en lisant la page suivante si besoin ; false en fin de flux
+        private boolean avancer() {
+            if (++position < page.size()) {
+                return true;
+            }
+            if (dernierePage) {
+                return false;
+            }
+            page = transactionRepository.findLignesReleveApres(compte.getCompteId(), jusqua, date, id,
+                PageRequest.of(0, TAILLE_PAGE));
+            position = 0;
+            dernierePage = page.size() < TAILLE_PAGE;
+            if (page.isEmpty()) {
+                return false;
+            }
+            LigneReleveDTO derniere = page.get(page.size() - 1);
+            date = derniere.getDateTransaction();
+            id = derniere.getId();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.ExecuteurReleveDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cloison dédiée au rendu des relevés PDF : un nombre fixe de threads, séparés de ceux de Tomcat et de
+ * l'exécuteur asynchrone de Spring MVC qui servent les dépôts, retraits, virements et exports.
+ * La file est bornée par des places réservées sur le thread de la requête (reserver()) : cloison
+ * saturée, la requête est refusée tout de suite au lieu de s'accumuler en mémoire.
+ * Tient les mesures de file et de durée exposées par etat().
+ */
+@Component
+public class ReleveExecuteur implements MeterBinder {
+
+    private final ThreadPoolExecutor pool;
+    private final int threads;
+    private final int capaciteFile;
+    // Une place par rendu en cours ou en attente : threads + capacité de la file
+    private final Semaphore places;
+    private final AsyncTaskExecutor executeur;
+
+    private final LongAdder soumis = new LongAdder();
+    private final LongAdder termines = new LongAdder();
+    private final LongAdder rejetes = new LongAdder();
+    private final LongAccumulator fileMax = new LongAccumulator(Math::max, 0);
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final LongAdder dureeTotaleNanos = new LongAdder();
+    private final LongAccumulator dureeMaxNanos = new LongAccumulator(Math::max, 0);
+
+    public ReleveExecuteur(@Value("${egabank.releves.executor.threads:0}") int threads,
+            @Value("${egabank.releves.executor.queue-capacity:32}") int capaciteFile) {
+        this.threads = threads > 0 ? threads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        this.capaciteFile = Math.max(0, capaciteFile);
+        this.places = new Semaphore(this.threads + this.capaciteFile);
+        AtomicInteger numero = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "releve-rendu-" + numero.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        this.executeur = new TaskExecutorAdapter(this::executer);
+    }
+
+    /**
+     * Réserve une place pour une tâche à venir sur executeur(). false : cloison saturée, à refuser.
+     */
+    public boolean reserver() {
+        if (places.tryAcquire()) {
+            return true;
+        }
+        rejetes.increment();
+        return false;
+    }
+
+    /**
+     * Exécuteur de la cloison, à utiliser uniquement après reserver() : chaque tâche rend sa place en
+     * fin d'exécution (y compris une tâche annulée avant de démarrer, qui passe quand même par un thread).
+     */
+    public AsyncTaskExecutor executeur() {
+        return executeur;
+    }
+
+    private void executer(Runnable tache) {
+        long soumission = System.nanoTime();
+        soumis.increment();
+        pool.execute(() -> {
+            long debut = System.nanoTime();
+            attenteTotaleNanos.add(debut - soumission);
+            try {
+                tache.run();
+            } finally {
+                long duree = System.nanoTime() - debut;
+                dureeTotaleNanos.add(duree);
+                dureeMaxNanos.accumulate(duree);
+                termines.increment();
+                places.release();
+            }
+        });
+        fileMax.accumulate(pool.getQueue().size());
+    }
+
+    /**
+     * Délai conseillé avant de réessayer après un refus : la file courante écoulée à la durée moyenne observée.
+     */
+    public long secondesAvantNouvelEssai() {
+        long n = termines.sum();
+        double moyenneNanos = n == 0 ? 1e9 : (double) dureeTotaleNanos.sum() / n;
+        double secondes = moyenneNanos * (pool.getQueue().size() + 1) / threads / 1e9;
+        return Math.max(1, (long) Math.ceil(secondes));
+    }
+
+    public ExecuteurReleveDTO etat() {
+        long n = termines.sum();
+        ExecuteurReleveDTO dto = new ExecuteurReleveDTO();
+        dto.setThreads(threads);
+        dto.setActifs(pool.getActiveCount());
+        dto.setEnAttente(pool.getQueue().size());
+        dto.setCapaciteFile(capaciteFile);
+        dto.setAttenteMax(fileMax.get());
+        dto.setSoumis(soumis.sum());
+        dto.setTermines(n);
+        dto.setRejetes(rejetes.sum());
+        dto.setAttenteMoyenneMs(n == 0 ? 0 : attenteTotaleNanos.sum() / n / 1_000_000.0);
+        dto.setDureeMoyenneMs(n == 0 ? 0 : dureeTotaleNanos.sum() / n / 1_000_000.0);
+        dto.setDureeMaxMs(dureeMaxNanos.get() / 1_000_000.0);
+        return dto;
+    }
+
+    // executor.* {name="releve-rendu"} : threads actifs, file, tâches terminées ; plus les refus de la cloison
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(pool, "releve-rendu", Tags.empty()).bindTo(registry);
+        FunctionCounter.builder("egabank.releves.rendu.rejetes", rejetes, LongAdder::sum)
+            .description("Rendus de relevés refusés, cloison saturée (503)")
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        pool.shutdownNow();
+    }
+}
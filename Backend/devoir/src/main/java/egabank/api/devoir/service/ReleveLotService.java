@@ -0,0 +1,407 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.LotReleveDTO;
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.repository.CompteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Relevés mensuels de tous les comptes, générés en lot dans &lt;repertoire&gt;/&lt;mois&gt;/.
+ * Les comptes sont parcourus par tranches d'ids croissants ; chaque tranche est rendue en parallèle
+ * sur un pool borné de workers, puis l'avancement (dernier id de la tranche) est enregistré dans
+ * lot.properties. Après un arrêt ou un crash, le lot reprend après la dernière tranche terminée ;
+ * un relevé déjà présent sur disque n'est jamais régénéré (écriture dans un .tmp puis renommage).
+ * Un seul lot s'exécute à la fois.
+ */
+@Service
+public class ReleveLotService implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ReleveLotService.class);
+    public static final String EN_COURS = "EN_COURS";
+    public static final String TERMINE = "TERMINE";
+    public static final String ECHEC = "ECHEC";
+    private static final String FICHIER_ETAT = "lot.properties";
+    private static final int MAX_COMPTES_EN_ERREUR = 100;
+
+    private final ReleveService releveService;
+    private final CompteRepository compteRepository;
+    private final Path repertoire;
+    private final int tailleTranche;
+    private final boolean repriseAuto;
+    private final ExecutorService workers;
+    private final ExecutorService coordinateur;
+    private final Map<YearMonth, Lot> lots = new ConcurrentHashMap<>();
+    private Lot actif;
+    private volatile boolean arret;
+
+    public ReleveLotService(ReleveService releveService, CompteRepository compteRepository,
+            @Value("${egabank.releves.lot.directory:}") String repertoire,
+            @Value("${egabank.releves.lot.workers:0}") int workers,
+            @Value("${egabank.releves.lot.chunk-size:200}") int tailleTranche,
+            @Value("${egabank.releves.lot.auto-resume:true}") boolean repriseAuto) {
+        this.releveService = releveService;
+        this.compteRepository = compteRepository;
+        this.repertoire = repertoire == null || repertoire.isBlank()
+            ? Path.of(System.getProperty("java.io.tmpdir"), "egabank-releves-mensuels")
+            : Path.of(repertoire);
+        this.tailleTranche = Math.max(1, tailleTranche);
+        this.repriseAuto = repriseAuto;
+        int n = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(n, fabrique("releve-lot-"));
+        this.coordinateur = Executors.newSingleThreadExecutor(fabrique("releve-lot-coordinateur-"));
+    }
+
+    private static java.util.concurrent.ThreadFactory fabrique(String prefixe) {
+        AtomicInteger numero = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefixe + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Lance le lot du mois, ou le reprend s'il a été interrompu. Relancer un lot terminé reparcourt
+     * tous les comptes et ne génère que les relevés manquants (comptes en erreur, comptes créés depuis).
+     * Seuls les mois clos sont acceptés : un relevé déjà présent n'est jamais régénéré, celui d'un mois
+     * en cours resterait figé sans ses opérations ultérieures.
+     */
+    public synchronized LotReleveDTO lancer(YearMonth mois) {
+        if (!mois.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Mois non clos : " + mois);
+        }
+        if (actif != null && EN_COURS.equals(actif.etat)) {
+            throw new IllegalStateException("Un lot est déjà en cours : " + actif.mois);
+        }
+        Lot lot = charger(mois);
+        if (!EN_COURS.equals(lot.etat)) {
+            // Nouveau passage complet : les relevés existants seront comptés comme déjà présents
+            lot = new Lot(mois);
+        }
+        lot.etat = EN_COURS;
+        lot.message = null;
+        lot.fin = null;
+        lot.generesAuDepart = lot.generes.sum();
+        lot.departNanos = System.nanoTime();
+        lots.put(mois, lot);
+        actif = lot;
+        Lot aExecuter = lot;
+        coordinateur.submit(() -> executer(aExecuter));
+        return etat(lot);
+    }
+
+    public LotReleveDTO etat(YearMonth mois) {
+        Lot lot = lots.get(mois);
+        if (lot == null && Files.exists(dossier(mois).resolve(FICHIER_ETAT))) {
+            lot = charger(mois);
+        }
+        return lot == null ? null : etat(lot);
+    }
+
+    public List<LotReleveDTO> lister() {
+        List<LotReleveDTO> resultat = new ArrayList<>();
+        for (Lot lot : lots.values()) {
+            resultat.add(etat(lot));
+        }
+        resultat.sort(Comparator.comparing(LotReleveDTO::getMois).reversed());
+        return resultat;
+    }
+
+    // Reprise après un arrêt ou un crash : le lot resté EN_COURS sur disque repart de sa dernière tranche
+    @EventListener(ApplicationReadyEvent.class)
+    public void reprendre() {
+        if (!repriseAuto || !Files.isDirectory(repertoire)) {
+            return;
+        }
+        try (DirectoryStream<Path> dossiers = Files.newDirectoryStream(repertoire, Files::isDirectory)) {
+            for (Path d : dossiers) {
+                if (!Files.exists(d.resolve(FICHIER_ETAT))) {
+                    continue;
+                }
+                YearMonth mois;
+                try {
+                    mois = YearMonth.parse(d.getFileName().toString());
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                Lot lot = charger(mois);
+                lots.put(mois, lot);
+                if (EN_COURS.equals(lot.etat)) {
+                    log.info("Reprise du lot de relevés {} après le compte {}", mois, lot.curseur);
+                    try {
+                        lancer(mois);
+                    } catch (IllegalStateException e) {
+                        log.warn("Lot {} non repris, un autre lot est en cours : relancer via l'API", mois);
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Lot {} non repris : {}", mois, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Reprise des lots de relevés impossible : {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(workers, "releve-lot", Tags.empty()).bindTo(registry);
+    }
+
+    // Arrêt propre : la tranche en cours est abandonnée, le lot reste EN_COURS et sera repris
+    @PreDestroy
+    public void arreter() {
+        arret = true;
+        coordinateur.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void executer(Lot lot) {
+        Path dossier = dossier(lot.mois);
+        LocalDate dateDebut = lot.mois.atDay(1);
+        LocalDate dateFin = lot.mois.atEndOfMonth();
+        try {
+            Files.createDirectories(dossier);
+            supprimerTemporaires(dossier);
+            lot.total = compteRepository.count();
+            sauvegarder(lot);
+            List<Long> ids;
+            do {
+                ids = compteRepository.findIdsApres(lot.curseur, PageRequest.of(0, tailleTranche));
+                List<Future<?>> taches = new ArrayList<>(ids.size());
+                for (Long id : ids) {
+                    taches.add(workers.submit(() -> generer(lot, id, dossier, dateDebut, dateFin)));
+                }
+                for (Future<?> tache : taches) {
+                    tache.get();
+                }
+                if (!ids.isEmpty()) {
+                    lot.curseur = ids.get(ids.size() - 1);
+                }
+                // Point de reprise : toute la tranche est sur disque
+                sauvegarder(lot);
+            } while (ids.size() == tailleTranche && !arret);
+            if (arret) {
+                return;
+            }
+            // Sur disque d'abord : un lot vu TERMINE a toujours son dernier point de reprise écrit
+            lot.fin = LocalDateTime.now();
+            sauvegarder(lot, TERMINE);
+            lot.etat = TERMINE;
+            LotReleveDTO bilan = etat(lot);
+            log.info("Lot de relevés {} terminé : {} générés, {} déjà présents, {} erreurs, {} comptes/s",
+                lot.mois, bilan.getGeneres(), bilan.getDejaPresents(), bilan.getErreurs(),
+                String.format("%.1f", bilan.getComptesParSeconde()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (arret) {
+                return;
+            }
+            log.error("Lot de relevés {} en échec", lot.mois, e);
+            lot.message = e instanceof ExecutionException && e.getCause() != null
+                ? e.getCause().getMessage() : e.getMessage();
+            lot.fin = LocalDateTime.now();
+            try {
+                sauvegarder(lot, ECHEC);
+            } catch (RuntimeException ignoree) {
+                // L'état sur disque reste EN_COURS : le lot sera repris au prochain démarrage
+            }
+            lot.etat = ECHEC;
+        }
+    }
+
+    private void generer(Lot lot, Long compteId, Path dossier, LocalDate dateDebut, LocalDate dateFin) {
+        Path fichier = dossier.resolve("releve_" + compteId + "_" + lot.mois + ".pdf");
+        if (Files.exists(fichier)) {
+            lot.dejaPresents.increment();
+            return;
+        }
+        Path temporaire = dossier.resolve(fichier.getFileName() + ".tmp");
+        try {
+            ReleveDTO releve = releveService.obtenirResumeReleve(compteId, dateDebut, dateFin);
+            try (OutputStream sortie = new BufferedOutputStream(Files.newOutputStream(temporaire), 64 * 1024)) {
+                releveService.ecrireRelevePdf(releve, sortie);
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            lot.generes.increment();
+        } catch (Exception e) {
+            if (arret) {
+                return;
+            }
+            log.warn("Relevé {} du compte {} non généré : {}", lot.mois, compteId, e.getMessage());
+            lot.erreur(compteId);
+            try {
+                Files.deleteIfExists(temporaire);
+            } catch (IOException ignoree) {
+                // Nettoyé au prochain passage
+            }
+        }
+    }
+
+    private LotReleveDTO etat(Lot lot) {
+        LotReleveDTO dto = new LotReleveDTO();
+        dto.setMois(lot.mois.toString());
+        dto.setEtat(lot.etat);
+        dto.setTotalComptes(lot.total);
+        dto.setGeneres(lot.generes.sum());
+        dto.setDejaPresents(lot.dejaPresents.sum());
+        dto.setErreurs(lot.erreurs.sum());
+        dto.setTraites(dto.getGeneres() + dto.getDejaPresents() + dto.getErreurs());
+        dto.setPourcentage(lot.total == 0 ? (TERMINE.equals(lot.etat) ? 100 : 0)
+            : Math.min(100, 100.0 * dto.getTraites() / lot.total));
+        if (lot.departNanos != 0) {
+            long finNanos = lot.finNanos != 0 ? lot.finNanos : System.nanoTime();
+            double secondes = (finNanos - lot.departNanos) / 1e9;
+            dto.setDureeSecondes((long) secondes);
+            dto.setComptesParSeconde(secondes > 0 ? (dto.getGeneres() - lot.generesAuDepart) / secondes : 0);
+        }
+        dto.setDebut(lot.debut);
+        dto.setFin(lot.fin);
+        dto.setRepertoire(dossier(lot.mois).toAbsolutePath().toString());
+        synchronized (lot.comptesEnErreur) {
+            dto.setComptesEnErreur(new ArrayList<>(lot.comptesEnErreur));
+        }
+        dto.setMessage(lot.message);
+        return dto;
+    }
+
+    private Path dossier(YearMonth mois) {
+        return repertoire.resolve(mois.toString());
+    }
+
+    private static void supprimerTemporaires(Path dossier) throws IOException {
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(dossier, "*.tmp")) {
+            for (Path fichier : fichiers) {
+                Files.deleteIfExists(fichier);
+            }
+        }
+    }
+
+    private Lot charger(YearMonth mois) {
+        Lot lot = new Lot(mois);
+        Path fichier = dossier(mois).resolve(FICHIER_ETAT);
+        if (!Files.exists(fichier)) {
+            return lot;
+        }
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(fichier)) {
+            p.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lot.etat = p.getProperty("etat", EN_COURS);
+        lot.curseur = Long.parseLong(p.getProperty("curseur", "0"));
+        lot.total = Long.parseLong(p.getProperty("total", "0"));
+        lot.generes.add(Long.parseLong(p.getProperty("generes", "0")));
+        lot.dejaPresents.add(Long.parseLong(p.getProperty("dejaPresents", "0")));
+        lot.erreurs.add(Long.parseLong(p.getProperty("erreurs", "0")));
+        lot.debut = p.containsKey("debut") ? LocalDateTime.parse(p.getProperty("debut")) : LocalDateTime.now();
+        lot.fin = p.containsKey("fin") ? LocalDateTime.parse(p.getProperty("fin")) : null;
+        lot.message = p.getProperty("message");
+        return lot;
+    }
+
+    // Écrit dans un .tmp puis renomme : un crash pendant l'écriture laisse l'état précédent intact
+    private void sauvegarder(Lot lot) {
+        sauvegarder(lot, lot.etat);
+    }
+
+    private void sauvegarder(Lot lot, String etat) {
+        if (!EN_COURS.equals(etat)) {
+            lot.finNanos = System.nanoTime();
+        }
+        Properties p = new Properties();
+        p.setProperty("etat", etat);
+        p.setProperty("curseur", Long.toString(lot.curseur));
+        p.setProperty("total", Long.toString(lot.total));
+        p.setProperty("generes", Long.toString(lot.generes.sum()));
+        p.setProperty("dejaPresents", Long.toString(lot.dejaPresents.sum()));
+        p.setProperty("erreurs", Long.toString(lot.erreurs.sum()));
+        p.setProperty("debut", lot.debut.toString());
+        if (lot.fin != null) {
+            p.setProperty("fin", lot.fin.toString());
+        }
+        if (lot.message != null) {
+            p.setProperty("message", lot.message);
+        }
+        Path fichier = dossier(lot.mois).resolve(FICHIER_ETAT);
+        Path temporaire = dossier(lot.mois).resolve(FICHIER_ETAT + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporaire)) {
+                p.store(out, "Lot de relevés " + lot.mois);
+            }
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Lot {
+        private final YearMonth mois;
+        private volatile String etat = EN_COURS;
+        // Dernier id de la dernière tranche entièrement écrite
+        private volatile long curseur;
+        private volatile long total;
+        private final LongAdder generes = new LongAdder();
+        private final LongAdder dejaPresents = new LongAdder();
+        private final LongAdder erreurs = new LongAdder();
+        private final List<Long> comptesEnErreur = Collections.synchronizedList(new ArrayList<>());
+        private volatile LocalDateTime debut = LocalDateTime.now();
+        private volatile LocalDateTime fin;
+        private volatile String message;
+        // Débit mesuré sur l'exécution courante (pas depuis le tout premier lancement)
+        private volatile long generesAuDepart;
+        private volatile long departNanos;
+        private volatile long finNanos;
+
+        private Lot(YearMonth mois) {
+            this.mois = mois;
+        }
+
+        private void erreur(Long compteId) {
+            erreurs.increment();
+            synchronized (comptesEnErreur) {
+                if (comptesEnErreur.size() < MAX_COMPTES_EN_ERREUR) {
+                    comptesEnErreur.add(compteId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package egabank.api.devoir.service;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.properties.TextAlignment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Ressources de rendu des relevés PDF préparées une fois au démarrage : logo déjà décodé et compressé,
+ * polices, styles des lignes du tableau et formatage des montants. Tout est en lecture seule et
+ * partagé entre les rendus concurrents ; seuls les objets liés à un PdfDocument (polices, XObject du
+ * logo) sont instanciés par document, à partir de ces ressources et sans relire ni recompresser.
+ */
+@Component
+public class ReleveRessources {
+    private static final Logger log = LoggerFactory.getLogger(ReleveRessources.class);
+
+    // Bordures séparées : chaque cellule trace ses filets bas et droit, le tableau le haut et la gauche
+    private static final SolidBorder FILET = new SolidBorder(0.5f);
+
+    // Styles partagés des lignes du tableau des opérations (jamais modifiés après construction)
+    final Style lignePaire = ligne(ColorConstants.WHITE);
+    final Style ligneImpaire = ligne(ReleveService.GRAY_LIGHT);
+    final Style cadre = new Style().setBorderTop(FILET).setBorderLeft(FILET);
+    final Style entete = filets(new Style().setBackgroundColor(ReleveService.SECONDARY_COLOR)
+        .setTextAlignment(TextAlignment.CENTER).setPadding(8));
+    final Style reference = new Style().setFontColor(ReleveService.GRAY_DARK).setTextAlignment(TextAlignment.CENTER);
+    final Style credit = new Style().setFontColor(ReleveService.SUCCESS_COLOR).setTextAlignment(TextAlignment.RIGHT);
+    final Style debit = new Style().setFontColor(ReleveService.DANGER_COLOR).setTextAlignment(TextAlignment.RIGHT);
+
+    private final FontProgram police;
+    private final FontProgram policeGras;
+    // PDF d'une page dont les ressources contiennent le logo (null si logo absent ou illisible)
+    private final byte[] gabaritLogo;
+    // Séparateur de milliers de String.format("%,.0f") dans la locale de la JVM
+    private final char separateurMilliers;
+
+    public ReleveRessources() {
+        try {
+            this.police = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.policeGras = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.gabaritLogo = preparerLogo("static/logo.png");
+        this.separateurMilliers = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT))
+            .getGroupingSeparator();
+    }
+
+    private static Style ligne(Color fond) {
+        return filets(new Style().setFontSize(9).setBackgroundColor(fond).setPadding(6));
+    }
+
+    private static Style filets(Style style) {
+        return style.setBorder(Border.NO_BORDER).setBorderBottom(FILET).setBorderRight(FILET);
+    }
+
+    // Décodage du PNG et compression de l'XObject une seule fois : le gabarit garde les flux déjà compressés
+    private static byte[] preparerLogo(String chemin) {
+        ClassPathResource ressource = new ClassPathResource(chemin);
+        if (!ressource.exists()) {
+            return null;
+        }
+        try (InputStream in = ressource.getInputStream()) {
+            PdfImageXObject image = new PdfImageXObject(ImageDataFactory.create(in.readAllBytes()));
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (PdfDocument gabarit = new PdfDocument(new PdfWriter(baos))) {
+                gabarit.addNewPage().getResources().addImage(image);
+            }
+            return baos.toByteArray();
+        } catch (Exception e) {
+            log.warn("Logo des relevés illisible, remplacé par le texte EGABANK : {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Une PdfFont appartient au document qui l'utilise : une instance par relevé, sur le programme préchargé
+    public PdfFont police() {
+        return PdfFontFactory.createFont(police, PdfEncodings.WINANSI);
+    }
+
+    public PdfFont policeGras() {
+        return PdfFontFactory.createFont(policeGras, PdfEncodings.WINANSI);
+    }
+
+    /**
+     * Logo copié dans "pdf" depuis le gabarit : les flux (image et masque alpha) sont recopiés tels quels,
+     * sans décodage ni recompression. null si le logo n'est pas disponible.
+     */
+    public PdfImageXObject logo(PdfDocument pdf) {
+        if (gabaritLogo == null) {
+            return null;
+        }
+        try (PdfDocument gabarit = new PdfDocument(new PdfReader(new ByteArrayInputStream(gabaritLogo)))) {
+            PdfDictionary images = gabarit.getFirstPage().getResources().getResource(PdfName.XObject);
+            PdfStream image = images.getAsStream(images.keySet().iterator().next());
+            return new PdfImageXObject((PdfStream) image.copyTo(pdf));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Équivalent de (signe) + String.format("%,.0f F CFA", montant) pour un montant entier,
+     * sans analyse de motif ni conversion en double. signe vaut 0 pour ne rien préfixer.
+     */
+    public String montant(long montant, char signe) {
+        char[] chiffres = new char[27];
+        int pos = chiffres.length;
+        long reste = Math.abs(montant);
+        int n = 0;
+        do {
+            if (n > 0 && n % 3 == 0) {
+                chiffres[--pos] = separateurMilliers;
+            }
+            chiffres[--pos] = (char) ('0' + reste % 10);
+            reste /= 10;
+            n++;
+        } while (reste > 0);
+        StringBuilder sb = new StringBuilder(chiffres.length - pos + 7);
+        if (signe != 0) {
+            sb.append(signe);
+        }
+        if (montant < 0) {
+            sb.append('-');
+        }
+        return sb.append(chiffres, pos, chiffres.length - pos).append(" F CFA").toString();
+    }
+}
@@ -1,60 +1,101 @@
 package egabank.api.devoir.service;
 
-import com.itextpdf.io.image.ImageData;
-import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.BorderCollapsePropertyValue;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import egabank.api.devoir.dto.CompteConsolideDTO;
+import egabank.api.devoir.dto.LigneConsolideeDTO;
+import egabank.api.devoir.dto.LigneReleveDTO;
+import egabank.api.devoir.dto.ReleveConsolideDTO;
 import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Client;
 import egabank.api.devoir.entity.Compte;
 import egabank.api.devoir.entity.Transaction;
 import egabank.api.devoir.repository.CompteRepository;
 import egabank.api.devoir.repository.TransactionRepository;
-import org.springframework.core.io.ClassPathResource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ReleveService {
     
     // Couleurs de la charte graphique EGABANK
     private static final DeviceRgb PRIMARY_COLOR = new DeviceRgb(22, 163, 74);    
-    private static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(20, 83, 45);   
-    private static final DeviceRgb SUCCESS_COLOR = new DeviceRgb(22, 163, 74);    
-    private static final DeviceRgb DANGER_COLOR = new DeviceRgb(220, 38, 38);     
-    private static final DeviceRgb GRAY_LIGHT = new DeviceRgb(243, 244, 246);     
-    private static final DeviceRgb GRAY_DARK = new DeviceRgb(107, 114, 128);      
+    static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(20, 83, 45);   
+    static final DeviceRgb SUCCESS_COLOR = new DeviceRgb(22, 163, 74);    
+    static final DeviceRgb DANGER_COLOR = new DeviceRgb(220, 38, 38);     
+    static final DeviceRgb GRAY_LIGHT = new DeviceRgb(243, 244, 246);     
+    static final DeviceRgb GRAY_DARK = new DeviceRgb(107, 114, 128);      
+    
+    // Transactions lues par page pour le tableau du PDF
+    private static final int TAILLE_LOT_PDF = 500;
+    
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATE_HEURE = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     
     private final CompteRepository compteRepository;
     private final TransactionRepository transactionRepository;
+    private final SoldeJournalierService soldesJournaliers;
+    private final ReleveRessources ressources;
+    private final Timer dureeDonnees;
+    // Rendu PDF d'un relevé de compte, quel que soit l'appelant (requête, cache, archive ZIP, lot mensuel)
+    private final Timer dureeRendu;
     
-    public ReleveService(CompteRepository compteRepository, TransactionRepository transactionRepository) {
+    public ReleveService(CompteRepository compteRepository, TransactionRepository transactionRepository,
+            SoldeJournalierService soldesJournaliers, ReleveRessources ressources, MeterRegistry registry) {
         this.compteRepository = compteRepository;
         this.transactionRepository = transactionRepository;
+        this.soldesJournaliers = soldesJournaliers;
+        this.ressources = ressources;
+        this.dureeDonnees = Timer.builder("egabank.releves.donnees")
+            .description("Chargement des données d'un relevé avec ses transactions")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.dureeRendu = Timer.builder("egabank.releves.pdf")
+            .description("Rendu PDF d'un relevé de compte")
+            .publishPercentileHistogram()
+            .register(registry);
     }
     
     public ReleveDTO obtenirDonneesReleve(Long compteId, LocalDate dateDebut, LocalDate dateFin) {
+        return dureeDonnees.record(() -> chargerDonneesReleve(compteId, dateDebut, dateFin));
+    }
+    
+    private ReleveDTO chargerDonneesReleve(Long compteId, LocalDate dateDebut, LocalDate dateFin) {
         Compte compte = compteRepository.findById(compteId)
             .orElseThrow(() -> new RuntimeException("Compte non trouvé"));
         
         LocalDateTime dateDebutTime = dateDebut.atStartOfDay();
-        LocalDateTime dateFinTime = dateFin.atTime(23, 59, 59);
+        LocalDateTime dateFinTime = dateFin.atTime(LocalTime.MAX);
         
         List<Transaction> transactions = transactionRepository
             .findByCompteIdAndDateBetween(compteId, dateDebutTime, dateFinTime);
@@ -79,33 +120,114 @@ public class ReleveService {
         
         releve.setTotalCredits(totalCredits);
         releve.setTotalDebits(totalDebits);
-        releve.setSoldeFin(compte.getSolde());
+        // Soldes lus sur les soldes journaliers : justes même si des opérations ont eu lieu après dateFin
+        releve.setSoldeDebut(soldesJournaliers.soldeFinJournee(compteId, dateDebut.minusDays(1), compte.getSolde()));
+        releve.setSoldeFin(soldesJournaliers.soldeFinJournee(compteId, dateFin, compte.getSolde()));
+        return releve;
+    }
+    
+    /**
+     * Relevé sans la liste des transactions : nombre et totaux calculés par la base en une requête,
+     * soldes lus sur les soldes journaliers.
+     */
+    public ReleveDTO obtenirResumeReleve(Long compteId, LocalDate dateDebut, LocalDate dateFin) {
+        Compte compte = compteRepository.findById(compteId)
+            .orElseThrow(() -> new RuntimeException("Compte non trouvé"));
+        
+        Object[] totaux = transactionRepository
+            .totauxPeriode(compteId, dateDebut.atStartOfDay(), dateFin.atTime(LocalTime.MAX)).get(0);
         
-        Integer soldeDebut = compte.getSolde() - totalCredits + totalDebits;
-        releve.setSoldeDebut(soldeDebut);
+        ReleveDTO releve = new ReleveDTO();
+        // Copie sans la collection transactions : sa sérialisation chargerait tout l'historique
+        releve.setCompte(new Compte(compte.getId(), compte.getNumeroCompte(), compte.getDateCreation(),
+            compte.getTypeCompte(), compte.getSolde(), compte.getClient(), null));
+        releve.setDateDebut(dateDebut);
+        releve.setDateFin(dateFin);
+        releve.setNombreTransactions(((Number) totaux[0]).intValue());
+        releve.setTotalCredits(((Number) totaux[1]).intValue());
+        releve.setTotalDebits(((Number) totaux[2]).intValue());
+        releve.setSoldeDebut(soldesJournaliers.soldeFinJournee(compteId, dateDebut.minusDays(1), compte.getSolde()));
+        releve.setSoldeFin(soldesJournaliers.soldeFinJournee(compteId, dateFin, compte.getSolde()));
         return releve;
     }
     
+    /**
+     * Un relevé résumé par mois civil de la période (le premier et le dernier éventuellement partiels).
+     * Totaux de tous les mois en une requête ; les soldes de chaque frontière de mois sont lus une seule
+     * fois, le solde final d'un mois est donc toujours le solde initial du suivant.
+     */
+    public List<ReleveDTO> obtenirResumesMensuels(Long compteId, LocalDate dateDebut, LocalDate dateFin) {
+        Compte compte = compteRepository.findById(compteId)
+            .orElseThrow(() -> new RuntimeException("Compte non trouvé"));
+        Compte copie = new Compte(compte.getId(), compte.getNumeroCompte(), compte.getDateCreation(),
+            compte.getTypeCompte(), compte.getSolde(), compte.getClient(), null);
+        
+        Map<YearMonth, Object[]> totaux = new HashMap<>();
+        for (Object[] ligne : transactionRepository.totauxParMois(compteId,
+                dateDebut.atStartOfDay(), dateFin.atTime(LocalTime.MAX))) {
+            totaux.put(YearMonth.of(((Number) ligne[0]).intValue(), ((Number) ligne[1]).intValue()), ligne);
+        }
+        
+        List<ReleveDTO> releves = new ArrayList<>();
+        Integer solde = soldesJournaliers.soldeFinJournee(compteId, dateDebut.minusDays(1), compte.getSolde());
+        LocalDate debut = dateDebut;
+        while (!debut.isAfter(dateFin)) {
+            YearMonth mois = YearMonth.from(debut);
+            LocalDate fin = mois.atEndOfMonth().isBefore(dateFin) ? mois.atEndOfMonth() : dateFin;
+            Object[] ligne = totaux.get(mois);
+            ReleveDTO releve = new ReleveDTO();
+            releve.setCompte(copie);
+            releve.setDateDebut(debut);
+            releve.setDateFin(fin);
+            releve.setNombreTransactions(ligne == null ? 0 : ((Number) ligne[2]).intValue());
+            releve.setTotalCredits(ligne == null ? 0 : ((Number) ligne[3]).intValue());
+            releve.setTotalDebits(ligne == null ? 0 : ((Number) ligne[4]).intValue());
+            releve.setSoldeDebut(solde);
+            solde = soldesJournaliers.soldeFinJournee(compteId, fin, compte.getSolde());
+            releve.setSoldeFin(solde);
+            releves.add(releve);
+            debut = fin.plusDays(1);
+        }
+        return releves;
+    }
+    
     public byte[] genererRelevePdf(Long compteId, LocalDate dateDebut, LocalDate dateFin) throws Exception {
-        ReleveDTO releve = obtenirDonneesReleve(compteId, dateDebut, dateFin);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ecrireRelevePdf(obtenirResumeReleve(compteId, dateDebut, dateFin), baos);
+        return baos.toByteArray();
+    }
+    
+    /**
+     * Écrit le relevé PDF au fil de l'eau dans "sortie" (laissée ouverte). Les transactions sont lues
+     * par pages et le tableau est mis en page puis écrit page après page : la mémoire utilisée ne dépend
+     * pas du nombre de transactions. "releve" vient de obtenirResumeReleve.
+     */
+    public void ecrireRelevePdf(ReleveDTO releve, OutputStream sortie) {
+        dureeRendu.record(() -> rendreRelevePdf(releve, sortie));
+    }
+    
+    private void rendreRelevePdf(ReleveDTO releve, OutputStream sortie) {
         Compte compte = releve.getCompte();
-        List<Transaction> transactions = releve.getTransactions();
+        LocalDate dateDebut = releve.getDateDebut();
+        LocalDate dateFin = releve.getDateFin();
         
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
+        PdfWriter writer = new PdfWriter(sortie);
+        writer.setCloseStream(false);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
         document.setMargins(40, 40, 40, 40);
+        document.setFont(ressources.police());
+        PdfFont gras = ressources.policeGras();
         
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        DateTimeFormatter dateFormatter = DATE;
+        DateTimeFormatter dateTimeFormatter = DATE_HEURE;
         
         // ========== EN-TÊTE AVEC LOGO ==========
-        addHeader(document);
+        addHeader(document, gras);
         
         // ========== TITRE DU DOCUMENT ==========
         document.add(new Paragraph("RELEVÉ DE COMPTE")
-            .setBold()
+            .setFont(gras)
             .setFontSize(22)
             .setFontColor(SECONDARY_COLOR)
             .setTextAlignment(TextAlignment.CENTER)
@@ -120,22 +242,189 @@ public class ReleveService {
             .setMarginBottom(25));
         
         // ========== INFORMATIONS DU COMPTE ==========
-        addAccountInfoSection(document, compte);
+        addAccountInfoSection(document, compte, gras);
         
         // ========== RÉSUMÉ FINANCIER ==========
-        addFinancialSummary(document, releve);
+        addFinancialSummary(document, releve, gras);
         
         // ========== TABLEAU DES TRANSACTIONS ==========
-        addTransactionsTable(document, transactions, dateTimeFormatter);
+        addTransactionsTable(document, releve, dateTimeFormatter, gras);
         
         // ========== PIED DE PAGE ==========
         addFooter(document, dateFormatter);
         
         document.close();
-        return baos.toByteArray();
     }
     
-    private void addHeader(Document document) {
+    /**
+     * Relevé consolidé d'un client en PDF, écrit au fil de l'eau comme ecrireRelevePdf : sous-totaux par
+     * compte, puis les opérations de tous les comptes dans l'ordre chronologique, lues depuis "lignes"
+     * (ReleveConsolideService.lignes) à mesure que le tableau est écrit.
+     */
+    public void ecrireReleveConsolidePdf(ReleveConsolideDTO releve, Iterator<LigneConsolideeDTO> lignes,
+            OutputStream sortie) {
+        PdfWriter writer = new PdfWriter(sortie);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf);
+        document.setMargins(40, 40, 40, 40);
+        document.setFont(ressources.police());
+        PdfFont gras = ressources.policeGras();
+        
+        addHeader(document, gras);
+        
+        document.add(new Paragraph("RELEVÉ CONSOLIDÉ")
+            .setFont(gras)
+            .setFontSize(22)
+            .setFontColor(SECONDARY_COLOR)
+            .setTextAlignment(TextAlignment.CENTER)
+            .setMarginTop(20)
+            .setMarginBottom(5));
+        
+        document.add(new Paragraph("Période du " + releve.getDateDebut().format(DATE) + 
+            " au " + releve.getDateFin().format(DATE))
+            .setFontSize(11)
+            .setFontColor(GRAY_DARK)
+            .setTextAlignment(TextAlignment.CENTER)
+            .setMarginBottom(25));
+        
+        // Titulaire
+        Table infoBox = new Table(1);
+        infoBox.setWidth(UnitValue.createPercentValue(100));
+        infoBox.setBackgroundColor(GRAY_LIGHT);
+        infoBox.setBorder(new SolidBorder(PRIMARY_COLOR, 1));
+        Cell infoCell = new Cell().setBorder(Border.NO_BORDER).setPadding(15);
+        infoCell.add(new Paragraph("TITULAIRE DES COMPTES")
+            .setFontSize(8)
+            .setFontColor(GRAY_DARK)
+            .setFont(gras));
+        infoCell.add(new Paragraph(releve.getPrenom() + " " + releve.getNom())
+            .setFontSize(12)
+            .setFont(gras)
+            .setFontColor(SECONDARY_COLOR));
+        infoCell.add(new Paragraph((releve.getAdresse() != null ? releve.getAdresse() + " | " : "")
+            + releve.getComptes().size() + " compte(s)")
+            .setFontSize(9)
+            .setFontColor(GRAY_DARK));
+        infoBox.addCell(infoCell);
+        document.add(infoBox);
+        document.add(new Paragraph("\n"));
+        
+        addConsolidatedSummary(document, releve, gras);
+        
+        document.add(new Paragraph("DÉTAIL DES OPÉRATIONS")
+            .setFont(gras)
+            .setFontSize(12)
+            .setFontColor(SECONDARY_COLOR)
+            .setMarginBottom(10));
+        
+        if (lignes.hasNext()) {
+            float[] columnWidths = {2.2f, 2.4f, 2f, 1.3f, 2f, 2f};
+            Table table = new Table(UnitValue.createPercentArray(columnWidths), true);
+            table.setWidth(UnitValue.createPercentValue(100));
+            table.setBorderCollapse(BorderCollapsePropertyValue.SEPARATE);
+            table.addStyle(ressources.cadre);
+            
+            String[] headers = {"Date & Heure", "Compte", "Type d'opération", "Référence", "Montant", "Solde total"};
+            for (String header : headers) {
+                table.addHeaderCell(new Cell()
+                    .add(new Paragraph(header).setFont(gras).setFontSize(9).setFontColor(ColorConstants.WHITE))
+                    .addStyle(ressources.entete));
+            }
+            document.add(table);
+            
+            boolean alternate = false;
+            int n = 0;
+            while (lignes.hasNext()) {
+                LigneConsolideeDTO t = lignes.next();
+                Style fond = alternate ? ressources.ligneImpaire : ressources.lignePaire;
+                boolean isCredit = t.getType().equals("DEPOT") || t.getType().equals("VIREMENT_RECU");
+                long montant = t.getMontant() != null ? t.getMontant() : 0;
+                
+                table.addCell(new Cell().addStyle(fond)
+                    .add(new Paragraph(t.getDateTransaction().format(DATE_HEURE))));
+                table.addCell(new Cell().addStyle(fond)
+                    .add(new Paragraph(t.getNumeroCompte())));
+                table.addCell(new Cell().addStyle(fond)
+                    .add(new Paragraph(getTypeLabel(t.getType()))));
+                table.addCell(new Cell().addStyle(fond).addStyle(ressources.reference)
+                    .add(new Paragraph("#" + t.getId())));
+                table.addCell(new Cell().addStyle(fond).addStyle(isCredit ? ressources.credit : ressources.debit)
+                    .add(new Paragraph(ressources.montant(montant, isCredit ? '+' : '-')).setFont(gras)));
+                table.addCell(new Cell().addStyle(fond).setTextAlignment(TextAlignment.RIGHT)
+                    .add(new Paragraph(ressources.montant(t.getSoldeTotal(), (char) 0))));
+                
+                alternate = !alternate;
+                // Même rythme que le relevé d'un compte : une page de lecture, puis écriture des lignes mises en page
+                if (++n % TAILLE_LOT_PDF == 0) {
+                    table.flush();
+                }
+            }
+            table.complete();
+        } else {
+            Table emptyBox = new Table(1);
+            emptyBox.setWidth(UnitValue.createPercentValue(100));
+            emptyBox.addCell(new Cell()
+                .add(new Paragraph("Aucune transaction pour cette période")
+                    .setItalic()
+                    .setFontColor(GRAY_DARK)
+                    .setTextAlignment(TextAlignment.CENTER))
+                .setBackgroundColor(GRAY_LIGHT)
+                .setPadding(20)
+                .setBorder(new SolidBorder(GRAY_DARK, 1)));
+            document.add(emptyBox);
+        }
+        
+        addFooter(document, DATE);
+        document.close();
+    }
+    
+    // Un sous-total par compte, puis la ligne des totaux du client
+    private void addConsolidatedSummary(Document document, ReleveConsolideDTO releve, PdfFont gras) {
+        document.add(new Paragraph("RÉSUMÉ PAR COMPTE")
+            .setFont(gras)
+            .setFontSize(12)
+            .setFontColor(SECONDARY_COLOR)
+            .setMarginBottom(10));
+        
+        float[] columnWidths = {2.5f, 1.5f, 1f, 2f, 2f, 2f, 2f};
+        Table table = new Table(UnitValue.createPercentArray(columnWidths));
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.setBorderCollapse(BorderCollapsePropertyValue.SEPARATE);
+        table.addStyle(ressources.cadre);
+        String[] headers = {"Compte", "Type", "Opérations", "Solde initial", "Crédits", "Débits", "Solde final"};
+        for (String header : headers) {
+            table.addHeaderCell(new Cell()
+                .add(new Paragraph(header).setFont(gras).setFontSize(9).setFontColor(ColorConstants.WHITE))
+                .addStyle(ressources.entete));
+        }
+        for (CompteConsolideDTO c : releve.getComptes()) {
+            addSummaryRow(table, ressources.lignePaire, gras, c.getNumeroCompte(), c.getTypeCompte(),
+                c.getNombreTransactions(), c.getSoldeDebut(), c.getTotalCredits(), c.getTotalDebits(), c.getSoldeFin());
+        }
+        addSummaryRow(table, ressources.ligneImpaire, gras, "TOTAL", "", releve.getNombreTransactions(),
+            releve.getSoldeDebut(), releve.getTotalCredits(), releve.getTotalDebits(), releve.getSoldeFin());
+        document.add(table);
+        document.add(new Paragraph("\n"));
+    }
+    
+    private void addSummaryRow(Table table, Style fond, PdfFont gras, String compte, String type, int nombre,
+            long soldeDebut, long credits, long debits, long soldeFin) {
+        table.addCell(new Cell().addStyle(fond).add(new Paragraph(compte).setFont(gras)));
+        table.addCell(new Cell().addStyle(fond).add(new Paragraph(type)));
+        table.addCell(new Cell().addStyle(fond).setTextAlignment(TextAlignment.RIGHT)
+            .add(new Paragraph(String.valueOf(nombre))));
+        table.addCell(new Cell().addStyle(fond).setTextAlignment(TextAlignment.RIGHT)
+            .add(new Paragraph(ressources.montant(soldeDebut, (char) 0))));
+        table.addCell(new Cell().addStyle(fond).addStyle(ressources.credit)
+            .add(new Paragraph(ressources.montant(credits, '+'))));
+        table.addCell(new Cell().addStyle(fond).addStyle(ressources.debit)
+            .add(new Paragraph(ressources.montant(debits, '-'))));
+        table.addCell(new Cell().addStyle(fond).setTextAlignment(TextAlignment.RIGHT)
+            .add(new Paragraph(ressources.montant(soldeFin, (char) 0)).setFont(gras)));
+    }
+    
+    private void addHeader(Document document, PdfFont gras) {
         try {
             // Logo centré en haut
             Table logoTable = new Table(1);
@@ -145,26 +434,24 @@ public class ReleveService {
             logoCell.setTextAlignment(TextAlignment.CENTER);
             
             try {
-                ClassPathResource logoResource = new ClassPathResource("static/logo.png");
-                if (logoResource.exists()) {
-                    InputStream logoStream = logoResource.getInputStream();
-                    byte[] logoBytes = logoStream.readAllBytes();
-                    ImageData imageData = ImageDataFactory.create(logoBytes);
-                    Image logo = new Image(imageData);
+                // Logo décodé une fois au démarrage, recopié sans recompression
+                PdfImageXObject logoXObject = ressources.logo(document.getPdfDocument());
+                if (logoXObject != null) {
+                    Image logo = new Image(logoXObject);
                     logo.setWidth(100);
                     logo.setHeight(100);
                     logo.setHorizontalAlignment(com.itextpdf.layout.properties.HorizontalAlignment.CENTER);
                     logoCell.add(logo);
                 } else {
                     logoCell.add(new Paragraph("EGABANK")
-                        .setBold()
+                        .setFont(gras)
                         .setFontSize(32)
                         .setFontColor(PRIMARY_COLOR)
                         .setTextAlignment(TextAlignment.CENTER));
                 }
             } catch (Exception e) {
                 logoCell.add(new Paragraph("EGABANK")
-                    .setBold()
+                    .setFont(gras)
                     .setFontSize(32)
                     .setFontColor(PRIMARY_COLOR)
                     .setTextAlignment(TextAlignment.CENTER));
@@ -189,14 +476,14 @@ public class ReleveService {
             
         } catch (Exception e) {
             document.add(new Paragraph("EGABANK")
-                .setBold()
+                .setFont(gras)
                 .setFontSize(24)
                 .setFontColor(PRIMARY_COLOR)
                 .setTextAlignment(TextAlignment.CENTER));
         }
     }
     
-    private void addAccountInfoSection(Document document, Compte compte) {
+    private void addAccountInfoSection(Document document, Compte compte, PdfFont gras) {
         Table infoBox = new Table(2);
         infoBox.setWidth(UnitValue.createPercentValue(100));
         infoBox.setBackgroundColor(GRAY_LIGHT);
@@ -206,12 +493,13 @@ public class ReleveService {
         leftCell.add(new Paragraph("TITULAIRE DU COMPTE")
             .setFontSize(8)
             .setFontColor(GRAY_DARK)
-            .setBold());
-        leftCell.add(new Paragraph(compte.getClient().getPrenom() + " " + compte.getClient().getNom())
+            .setFont(gras));
+        Client client = compte.getClient();
+        leftCell.add(new Paragraph(client != null ? client.getPrenom() + " " + client.getNom() : "-")
             .setFontSize(12)
-            .setBold()
+            .setFont(gras)
             .setFontColor(SECONDARY_COLOR));
-        leftCell.add(new Paragraph(compte.getClient().getAdresse())
+        leftCell.add(new Paragraph(client != null && client.getAdresse() != null ? client.getAdresse() : "")
             .setFontSize(9)
             .setFontColor(GRAY_DARK));
         infoBox.addCell(leftCell);
@@ -220,11 +508,11 @@ public class ReleveService {
         rightCell.add(new Paragraph("NUMÉRO DE COMPTE")
             .setFontSize(8)
             .setFontColor(GRAY_DARK)
-            .setBold()
+            .setFont(gras)
             .setTextAlignment(TextAlignment.RIGHT));
         rightCell.add(new Paragraph(compte.getNumeroCompte())
             .setFontSize(14)
-            .setBold()
+            .setFont(gras)
             .setFontColor(PRIMARY_COLOR)
             .setTextAlignment(TextAlignment.RIGHT));
         rightCell.add(new Paragraph("Type: " + compte.getTypeCompte())
@@ -237,17 +525,17 @@ public class ReleveService {
         document.add(new Paragraph("\n"));
     }
     
-    private void addFinancialSummary(Document document, ReleveDTO releve) {
+    private void addFinancialSummary(Document document, ReleveDTO releve, PdfFont gras) {
         document.add(new Paragraph("RÉSUMÉ FINANCIER")
-            .setBold()
+            .setFont(gras)
             .setFontSize(12)
             .setFontColor(SECONDARY_COLOR)
             .setMarginBottom(10));
         
-        double soldeDebut = releve.getSoldeDebut() != null ? releve.getSoldeDebut().doubleValue() : 0.0;
-        double totalCredits = releve.getTotalCredits() != null ? releve.getTotalCredits().doubleValue() : 0.0;
-        double totalDebits = releve.getTotalDebits() != null ? releve.getTotalDebits().doubleValue() : 0.0;
-        double soldeFin = releve.getSoldeFin() != null ? releve.getSoldeFin().doubleValue() : 0.0;
+        long soldeDebut = releve.getSoldeDebut() != null ? releve.getSoldeDebut() : 0;
+        long totalCredits = releve.getTotalCredits() != null ? releve.getTotalCredits() : 0;
+        long totalDebits = releve.getTotalDebits() != null ? releve.getTotalDebits() : 0;
+        long soldeFin = releve.getSoldeFin() != null ? releve.getSoldeFin() : 0;
         
         // Tableau du résumé
         float[] summaryWidths = {1, 1, 1, 1};
@@ -256,22 +544,22 @@ public class ReleveService {
         
         // Solde début
         Cell cell1 = createSummaryCell("Solde initial", 
-            String.format("%,.0f F CFA", soldeDebut), GRAY_DARK);
+            ressources.montant(soldeDebut, (char) 0), GRAY_DARK, gras);
         summaryTable.addCell(cell1);
         
         // Total crédits
         Cell cell2 = createSummaryCell("Total crédits", 
-            String.format("+%,.0f F CFA", totalCredits), SUCCESS_COLOR);
+            ressources.montant(totalCredits, '+'), SUCCESS_COLOR, gras);
         summaryTable.addCell(cell2);
         
         // Total débits
         Cell cell3 = createSummaryCell("Total débits", 
-            String.format("-%,.0f F CFA", totalDebits), DANGER_COLOR);
+            ressources.montant(totalDebits, '-'), DANGER_COLOR, gras);
         summaryTable.addCell(cell3);
         
         // Solde final
         Cell cell4 = createSummaryCell("Solde final", 
-            String.format("%,.0f F CFA", soldeFin), PRIMARY_COLOR);
+            ressources.montant(soldeFin, (char) 0), PRIMARY_COLOR, gras);
         cell4.setBackgroundColor(new DeviceRgb(240, 253, 244));  // Vert très clair
         summaryTable.addCell(cell4);
         
@@ -284,7 +572,7 @@ public class ReleveService {
             .setMarginBottom(20));
     }
     
-    private Cell createSummaryCell(String label, String value, DeviceRgb valueColor) {
+    private Cell createSummaryCell(String label, String value, DeviceRgb valueColor, PdfFont gras) {
         Cell cell = new Cell()
             .setBorder(new SolidBorder(GRAY_LIGHT, 1))
             .setPadding(10);
@@ -293,79 +581,82 @@ public class ReleveService {
             .setFontColor(GRAY_DARK));
         cell.add(new Paragraph(value)
             .setFontSize(11)
-            .setBold()
+            .setFont(gras)
             .setFontColor(valueColor));
         return cell;
     }
     
-    private void addTransactionsTable(Document document, List<Transaction> transactions, 
-            DateTimeFormatter dateTimeFormatter) {
+    private void addTransactionsTable(Document document, ReleveDTO releve, 
+            DateTimeFormatter dateTimeFormatter, PdfFont gras) {
         
         document.add(new Paragraph("DÉTAIL DES OPÉRATIONS")
-            .setBold()
+            .setFont(gras)
             .setFontSize(12)
             .setFontColor(SECONDARY_COLOR)
             .setMarginBottom(10));
         
-        if (!transactions.isEmpty()) {
+        if (releve.getNombreTransactions() != null && releve.getNombreTransactions() > 0) {
             float[] columnWidths = {2.5f, 2f, 1.5f, 2f};
-            Table table = new Table(UnitValue.createPercentArray(columnWidths));
+            // Tableau "large" : les lignes déjà mises en page sont écrites puis libérées à chaque flush()
+            Table table = new Table(UnitValue.createPercentArray(columnWidths), true);
             table.setWidth(UnitValue.createPercentValue(100));
+            // Bordures séparées : le calcul des bordures fusionnées domine le rendu des longs tableaux
+            table.setBorderCollapse(BorderCollapsePropertyValue.SEPARATE);
+            table.addStyle(ressources.cadre);
             
             // En-têtes du tableau
             String[] headers = {"Date & Heure", "Type d'opération", "Référence", "Montant"};
             for (String header : headers) {
                 Cell headerCell = new Cell()
-                    .add(new Paragraph(header).setBold().setFontSize(9).setFontColor(ColorConstants.WHITE))
-                    .setBackgroundColor(SECONDARY_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setPadding(8);
+                    .add(new Paragraph(header).setFont(gras).setFontSize(9).setFontColor(ColorConstants.WHITE))
+                    .addStyle(ressources.entete);
                 table.addHeaderCell(headerCell);
             }
             
-            // Lignes de données
-            boolean alternate = false;
-            for (Transaction t : transactions) {
-                com.itextpdf.kernel.colors.Color bgColor = alternate ? GRAY_LIGHT : ColorConstants.WHITE;
-                
-                // Date
-                table.addCell(new Cell()
-                    .add(new Paragraph(t.getDateTransaction().format(dateTimeFormatter)).setFontSize(9))
-                    .setBackgroundColor(bgColor)
-                    .setPadding(6));
-                
-                // Type avec icône textuelle
-                String typeLabel = getTypeLabel(t.getType());
-                table.addCell(new Cell()
-                    .add(new Paragraph(typeLabel).setFontSize(9))
-                    .setBackgroundColor(bgColor)
-                    .setPadding(6));
-                
-                // Référence
-                table.addCell(new Cell()
-                    .add(new Paragraph("#" + t.getId()).setFontSize(9).setFontColor(GRAY_DARK))
-                    .setBackgroundColor(bgColor)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setPadding(6));
-                
-                // Montant
-                boolean isCredit = t.getType().equals("DEPOT") || t.getType().equals("VIREMENT_RECU");
-                double montant = t.getMontant() != null ? t.getMontant().doubleValue() : 0.0;
-                String montantStr = (isCredit ? "+" : "-") + String.format("%,.0f F CFA", montant);
-                
-                table.addCell(new Cell()
-                    .add(new Paragraph(montantStr)
-                        .setFontSize(9)
-                        .setBold()
-                        .setFontColor(isCredit ? SUCCESS_COLOR : DANGER_COLOR))
-                    .setBackgroundColor(bgColor)
-                    .setTextAlignment(TextAlignment.RIGHT)
-                    .setPadding(6));
-                
-                alternate = !alternate;
-            }
-            
             document.add(table);
+            
+            // Lignes de données, par pages de clé (date, id) décroissante
+            Long compteId = releve.getCompte().getId();
+            LocalDateTime depuis = releve.getDateDebut().atStartOfDay();
+            LocalDateTime date = releve.getDateFin().plusDays(1).atStartOfDay();
+            Long id = Long.MIN_VALUE;
+            boolean alternate = false;
+            List<LigneReleveDTO> lignes;
+            do {
+                lignes = transactionRepository.findLignesReleveAvant(compteId, depuis, date, id,
+                    PageRequest.of(0, TAILLE_LOT_PDF));
+                for (LigneReleveDTO t : lignes) {
+                    // Styles partagés préparés au démarrage : rien n'est alloué par cellule hormis le texte
+                    Style fond = alternate ? ressources.ligneImpaire : ressources.lignePaire;
+                    
+                    // Date
+                    table.addCell(new Cell().addStyle(fond)
+                        .add(new Paragraph(t.getDateTransaction().format(dateTimeFormatter))));
+                    
+                    // Type avec icône textuelle
+                    table.addCell(new Cell().addStyle(fond)
+                        .add(new Paragraph(getTypeLabel(t.getType()))));
+                    
+                    // Référence
+                    table.addCell(new Cell().addStyle(fond).addStyle(ressources.reference)
+                        .add(new Paragraph("#" + t.getId())));
+                    
+                    // Montant
+                    boolean isCredit = t.getType().equals("DEPOT") || t.getType().equals("VIREMENT_RECU");
+                    long montant = t.getMontant() != null ? t.getMontant() : 0;
+                    table.addCell(new Cell().addStyle(fond).addStyle(isCredit ? ressources.credit : ressources.debit)
+                        .add(new Paragraph(ressources.montant(montant, isCredit ? '+' : '-')).setFont(gras)));
+                    
+                    alternate = !alternate;
+                }
+                if (!lignes.isEmpty()) {
+                    LigneReleveDTO derniere = lignes.get(lignes.size() - 1);
+                    date = derniere.getDateTransaction();
+                    id = derniere.getId();
+                }
+                table.flush();
+            } while (lignes.size() == TAILLE_LOT_PDF);
+            table.complete();
         } else {
             // Message si aucune transaction
             Table emptyBox = new Table(1);
@@ -0,0 +1,128 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.entity.SoldeJournalier;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.SoldeJournalierRepository;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Soldes de début et de fin de journée par compte. Le solde d'un compte à la fin d'un jour
+ * quelconque se lit sur la dernière journée active jusqu'à ce jour (ou, à défaut, sur la première
+ * journée active suivante) : au plus deux accès à l'index (compte_id, jour), sans parcourir l'historique.
+ */
+@Service
+public class SoldeJournalierService {
+    private static final Logger log = LoggerFactory.getLogger(SoldeJournalierService.class);
+
+    private final SoldeJournalierRepository soldeJournalierRepository;
+    private final TransactionRepository transactionRepository;
+    private final CompteRepository compteRepository;
+    private final CompteLockStripes verrous;
+    private final TransactionTemplate transactionTemplate;
+
+    public SoldeJournalierService(SoldeJournalierRepository soldeJournalierRepository,
+            TransactionRepository transactionRepository, CompteRepository compteRepository,
+            CompteLockStripes verrous, PlatformTransactionManager transactionManager) {
+        this.soldeJournalierRepository = soldeJournalierRepository;
+        this.transactionRepository = transactionRepository;
+        this.compteRepository = compteRepository;
+        this.verrous = verrous;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * À appeler dans la transaction de l'écriture, sous le verrou du compte :
+     * la première écriture du jour fixe le solde de début, chaque écriture repousse le solde de fin.
+     */
+    public void enregistrer(Long compteId, LocalDate jour, Integer soldeAvant, Integer soldeApres) {
+        SoldeJournalier solde = soldeJournalierRepository.findByCompteIdAndJour(compteId, jour).orElse(null);
+        if (solde == null) {
+            soldeJournalierRepository.save(new SoldeJournalier(null, compteId, jour, soldeAvant, soldeApres));
+        } else {
+            // Entité gérée : l'UPDATE part au flush
+            solde.setSoldeFin(soldeApres);
+        }
+    }
+
+    /**
+     * Solde du compte à la fin de "jour". soldeActuel sert quand le compte n'a jamais eu d'opération.
+     */
+    public Integer soldeFinJournee(Long compteId, LocalDate jour, Integer soldeActuel) {
+        return soldeJournalierRepository.findFirstByCompteIdAndJourLessThanEqualOrderByJourDesc(compteId, jour)
+            .map(SoldeJournalier::getSoldeFin)
+            .orElseGet(() -> soldeJournalierRepository.findFirstByCompteIdAndJourGreaterThanOrderByJourAsc(compteId, jour)
+                .map(SoldeJournalier::getSoldeDebut)
+                .orElse(soldeActuel));
+    }
+
+    public void supprimerCompte(Long compteId) {
+        transactionTemplate.executeWithoutResult(status -> soldeJournalierRepository.supprimerParCompte(compteId));
+    }
+
+    /**
+     * Recalcule les soldes journaliers d'un compte depuis ses transactions, sous le verrou du compte.
+     * Retourne le nombre de journées écrites.
+     */
+    public int reconstruire(Long compteId) {
+        Integer n = verrous.avecVerrou(compteId, () -> transactionTemplate.execute(status -> {
+            soldeJournalierRepository.supprimerParCompte(compteId);
+            List<SoldeJournalier> jours = new ArrayList<>();
+            SoldeJournalier courant = null;
+            try (Stream<Object[]> lignes = transactionRepository.streamSoldesParCompte(compteId)) {
+                Iterator<Object[]> it = lignes.iterator();
+                while (it.hasNext()) {
+                    Object[] ligne = it.next();
+                    LocalDate jour = (LocalDate) ligne[0];
+                    Integer avant = (Integer) ligne[1];
+                    Integer apres = (Integer) ligne[2];
+                    if (apres == null) {
+                        continue;
+                    }
+                    if (courant == null || !courant.getJour().equals(jour)) {
+                        courant = new SoldeJournalier(null, compteId, jour, avant != null ? avant : apres, apres);
+                        jours.add(courant);
+                    } else {
+                        courant.setSoldeFin(apres);
+                    }
+                }
+            }
+            soldeJournalierRepository.saveAll(jours);
+            return jours.size();
+        }));
+        return n == null ? 0 : n;
+    }
+
+    // Rattrapage complet, un compte à la fois : les écritures sur les autres comptes continuent
+    public int reconstruireTout() {
+        long debut = System.nanoTime();
+        int total = 0;
+        List<Long> ids = compteRepository.findAllIds();
+        for (Long id : ids) {
+            total += reconstruire(id);
+        }
+        log.info("Soldes journaliers reconstruits : {} comptes, {} journées en {} ms", ids.size(), total,
+            (System.nanoTime() - debut) / 1_000_000);
+        return total;
+    }
+
+    // Base existante sans soldes journaliers (première mise en service) : rattrapage au démarrage
+    @EventListener(ApplicationReadyEvent.class)
+    public void rattraperSiVide() {
+        if (soldeJournalierRepository.count() == 0 && transactionRepository.count() > 0) {
+            reconstruireTout();
+        }
+    }
+}
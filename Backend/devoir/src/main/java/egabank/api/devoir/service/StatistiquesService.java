@@ -0,0 +1,197 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.StatJourDTO;
+import egabank.api.devoir.dto.TableauDeBordDTO;
+import egabank.api.devoir.repository.ClientRepository;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégats du tableau de bord tenus à jour à chaque écriture : nombre et somme par jour et par type
+ * de transaction, nombre de comptes et solde cumulé par type de compte, nombre de clients.
+ * Les mises à jour d'une écriture sont appliquées après son commit (rien n'est compté pour une
+ * transaction annulée). Lire le tableau de bord ne parcourt jamais la table des transactions.
+ * {@link #reconstruire()} recalcule tout depuis la base (démarrage, reprise après incident).
+ */
+@Service
+public class StatistiquesService {
+    private static final Logger log = LoggerFactory.getLogger(StatistiquesService.class);
+    public static final int JOURS_DEFAUT = 30;
+    public static final int JOURS_MAX = 366;
+    private static final String TYPE_INCONNU = "INCONNU";
+
+    private final ClientRepository clientRepository;
+    private final CompteRepository compteRepository;
+    private final TransactionRepository transactionRepository;
+    private final CompteLockStripes verrous;
+    private volatile Etat etat = new Etat();
+
+    public StatistiquesService(ClientRepository clientRepository, CompteRepository compteRepository,
+            TransactionRepository transactionRepository, CompteLockStripes verrous) {
+        this.clientRepository = clientRepository;
+        this.compteRepository = compteRepository;
+        this.transactionRepository = transactionRepository;
+        this.verrous = verrous;
+    }
+
+    // Transaction enregistrée sur un compte ; deltaSolde est la variation du solde de ce compte
+    public void operation(String typeCompte, String typeTransaction, LocalDateTime date, int montant, long deltaSolde) {
+        apresCommit(() -> {
+            Etat e = etat;
+            String type = cle(typeTransaction);
+            e.totauxParType.computeIfAbsent(type, k -> new Agregat()).ajouter(1, montant);
+            e.parJour.computeIfAbsent(date.toLocalDate(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(type, k -> new Agregat()).ajouter(1, montant);
+            e.comptesParType.computeIfAbsent(cle(typeCompte), k -> new Agregat()).ajouter(0, deltaSolde);
+        });
+    }
+
+    public void compteCree(String typeCompte, Integer solde) {
+        apresCommit(() -> etat.comptesParType.computeIfAbsent(cle(typeCompte), k -> new Agregat())
+            .ajouter(1, solde == null ? 0 : solde));
+    }
+
+    public void compteSupprime(String typeCompte, Integer solde) {
+        apresCommit(() -> etat.comptesParType.computeIfAbsent(cle(typeCompte), k -> new Agregat())
+            .ajouter(-1, solde == null ? 0 : -solde));
+    }
+
+    public void compteModifie(String ancienType, Integer ancienSolde, String nouveauType, Integer nouveauSolde) {
+        compteSupprime(ancienType, ancienSolde);
+        compteCree(nouveauType, nouveauSolde);
+    }
+
+    public void clientCree() {
+        apresCommit(() -> etat.nombreClients.increment());
+    }
+
+    public void clientSupprime() {
+        apresCommit(() -> etat.nombreClients.decrement());
+    }
+
+    public TableauDeBordDTO tableauDeBord(Integer jours) {
+        int n = jours == null ? JOURS_DEFAUT : Math.min(Math.max(jours, 1), JOURS_MAX);
+        Etat e = etat;
+        TableauDeBordDTO dto = new TableauDeBordDTO();
+        dto.setNombreClients(e.nombreClients.sum());
+        for (Map.Entry<String, Agregat> entree : e.comptesParType.entrySet()) {
+            long nombre = entree.getValue().nombre.sum();
+            dto.setNombreComptes(dto.getNombreComptes() + nombre);
+            dto.setSoldeTotal(dto.getSoldeTotal() + entree.getValue().somme.sum());
+            if ("EPARGNE".equals(entree.getKey())) {
+                dto.setComptesEpargne(nombre);
+            } else if ("COURANT".equals(entree.getKey())) {
+                dto.setComptesCourant(nombre);
+            }
+        }
+        for (Map.Entry<String, Agregat> entree : e.totauxParType.entrySet()) {
+            String type = entree.getKey();
+            if (!"VIREMENT_RECU".equals(type)) {
+                dto.setNombreTransactions(dto.getNombreTransactions() + entree.getValue().nombre.sum());
+            }
+            long somme = entree.getValue().somme.sum();
+            if ("DEPOT".equals(type)) {
+                dto.setTotalDepots(somme);
+            } else if ("RETRAIT".equals(type)) {
+                dto.setTotalRetraits(somme);
+            } else if ("VIREMENT".equals(type)) {
+                dto.setTotalVirements(somme);
+            }
+        }
+        List<StatJourDTO> activite = new ArrayList<>();
+        LocalDate depuis = LocalDate.now().minusDays(n - 1L);
+        for (Map.Entry<LocalDate, ConcurrentMap<String, Agregat>> jour : e.parJour.tailMap(depuis).descendingMap().entrySet()) {
+            for (Map.Entry<String, Agregat> type : new TreeMap<>(jour.getValue()).entrySet()) {
+                activite.add(new StatJourDTO(jour.getKey(), type.getKey(),
+                    type.getValue().nombre.sum(), type.getValue().somme.sum()));
+            }
+        }
+        dto.setActiviteParJour(activite);
+        return dto;
+    }
+
+    /**
+     * Recalcule les agrégats depuis la base puis remplace l'état courant d'un bloc.
+     * Toutes les stripes de comptes sont tenues pendant le calcul : aucune écriture ne peut
+     * être comptée deux fois ni perdue. Les créations et suppressions de clients ou de comptes
+     * ne prennent pas ces verrous et doivent être évitées pendant une reconstruction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruire() {
+        long debut = System.nanoTime();
+        verrous.avecTousLesVerrous(() -> {
+            Etat nouvel = new Etat();
+            nouvel.nombreClients.add(clientRepository.count());
+            for (Object[] ligne : compteRepository.agregerParType()) {
+                nouvel.comptesParType.computeIfAbsent(cle((String) ligne[0]), k -> new Agregat())
+                    .ajouter(((Number) ligne[1]).longValue(), ((Number) ligne[2]).longValue());
+            }
+            for (Object[] ligne : transactionRepository.agregerParJourEtType()) {
+                String type = cle((String) ligne[1]);
+                long nombre = ((Number) ligne[2]).longValue();
+                long somme = ((Number) ligne[3]).longValue();
+                nouvel.totauxParType.computeIfAbsent(type, k -> new Agregat()).ajouter(nombre, somme);
+                nouvel.parJour.computeIfAbsent((LocalDate) ligne[0], k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(type, k -> new Agregat()).ajouter(nombre, somme);
+            }
+            etat = nouvel;
+            return null;
+        });
+        log.info("Statistiques reconstruites en {} ms", (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    // Dans une transaction : appliqué au commit, ignoré au rollback. Hors transaction : immédiat.
+    private static void apresCommit(Runnable maj) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    maj.run();
+                }
+            });
+        } else {
+            maj.run();
+        }
+    }
+
+    private static String cle(String type) {
+        return type == null ? TYPE_INCONNU : type;
+    }
+
+    private static final class Etat {
+        private final LongAdder nombreClients = new LongAdder();
+        // Par type de compte : nombre de comptes, somme des soldes
+        private final ConcurrentMap<String, Agregat> comptesParType = new ConcurrentHashMap<>();
+        // Par type de transaction : nombre, somme des montants
+        private final ConcurrentMap<String, Agregat> totauxParType = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<LocalDate, ConcurrentMap<String, Agregat>> parJour = new ConcurrentSkipListMap<>();
+    }
+
+    private static final class Agregat {
+        private final LongAdder nombre = new LongAdder();
+        private final LongAdder somme = new LongAdder();
+
+        private void ajouter(long n, long s) {
+            nombre.add(n);
+            somme.add(s);
+        }
+    }
+}
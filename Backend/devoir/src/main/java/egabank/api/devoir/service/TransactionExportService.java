@@ -0,0 +1,120 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.entity.Transaction;
+import egabank.api.devoir.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export de l'historique des transactions en NDJSON (un objet JSON par ligne) ou en CSV.
+ * Les lignes sont lues par curseur et écrites au fil de l'eau : le contexte de persistance est vidé
+ * tous les {@link #LOT_EXPORT} enregistrements, la mémoire reste constante quel que soit le volume.
+ */
+@Service
+public class TransactionExportService {
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    static final int LOT_EXPORT = 1000;
+
+    private static final String ENTETE_CSV = "id,dateTransaction,type,montant,montantAvant,montantApres,"
+        + "origineFonds,numeroCompte,nomClient,compteDestination\n";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate lecture;
+
+    public TransactionExportService(TransactionRepository transactionRepository, EntityManager entityManager,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.lecture = new TransactionTemplate(transactionManager);
+        this.lecture.setReadOnly(true);
+    }
+
+    public static String normaliserFormat(String format) {
+        String f = format == null ? FORMAT_NDJSON : format.trim().toLowerCase();
+        if (!f.equals(FORMAT_NDJSON) && !f.equals(FORMAT_CSV)) {
+            throw new IllegalArgumentException("Format d'export inconnu : " + format);
+        }
+        return f;
+    }
+
+    /**
+     * Écrit toutes les transactions (ou celles d'un compte) par id croissant. Retourne le nombre de lignes exportées.
+     */
+    public long exporter(String format, Long compteId, OutputStream sortie) {
+        boolean csv = normaliserFormat(format).equals(FORMAT_CSV);
+        Long total = lecture.execute(status -> {
+            try (Stream<Transaction> lignes = transactionRepository.streamPourExport(compteId)) {
+                BufferedOutputStream out = new BufferedOutputStream(sortie, 64 * 1024);
+                if (csv) {
+                    out.write(ENTETE_CSV.getBytes(StandardCharsets.UTF_8));
+                }
+                long n = 0;
+                Iterator<Transaction> it = lignes.iterator();
+                while (it.hasNext()) {
+                    Transaction t = it.next();
+                    if (csv) {
+                        out.write(ligneCsv(t).getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        out.write(objectMapper.writeValueAsBytes(t));
+                        out.write('\n');
+                    }
+                    if (++n % LOT_EXPORT == 0) {
+                        // Les entités déjà écrites ne sont plus référencées que par le contexte de persistance
+                        entityManager.clear();
+                        out.flush();
+                    }
+                }
+                out.flush();
+                return n;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return total == null ? 0 : total;
+    }
+
+    private static String ligneCsv(Transaction t) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(t.getId()).append(',')
+            .append(valeur(t.getDateTransaction())).append(',')
+            .append(champ(t.getType())).append(',')
+            .append(valeur(t.getMontant())).append(',')
+            .append(valeur(t.getMontantAvant())).append(',')
+            .append(valeur(t.getMontantApres())).append(',')
+            .append(champ(t.getOrigineFonds())).append(',')
+            .append(champ(t.getNumeroCompte())).append(',')
+            .append(champ(t.getNomClient())).append(',')
+            .append(champ(t.getCompteDestination())).append('\n');
+        return sb.toString();
+    }
+
+    private static String valeur(Object v) {
+        return v == null ? "" : v.toString();
+    }
+
+    // RFC 4180 : guillemets autour des champs contenant séparateur, guillemet ou retour à la ligne
+    private static String champ(String v) {
+        if (v == null) {
+            return "";
+        }
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) {
+            return v;
+        }
+        return '"' + v.replace("\"", "\"\"") + '"';
+    }
+}
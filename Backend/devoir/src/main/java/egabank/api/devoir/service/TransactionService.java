@@ -0,0 +1,115 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.PageTransactionsDTO;
+import egabank.api.devoir.entity.Transaction;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+public class TransactionService {
+    public static final int TAILLE_PAGE_DEFAUT = 50;
+    public static final int TAILLE_PAGE_MAX = 500;
+
+    // Borne de départ de la première page : toute transaction est antérieure
+    private static final LocalDateTime DEBUT_PARCOURS = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    // Borne basse par défaut : aucune transaction n'est antérieure
+    private static final LocalDateTime FIN_PARCOURS = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    private final TransactionRepository transactionRepository;
+    private final CompteRepository compteRepository;
+
+    public TransactionService(TransactionRepository transactionRepository, CompteRepository compteRepository) {
+        this.transactionRepository = transactionRepository;
+        this.compteRepository = compteRepository;
+    }
+
+    /**
+     * Page de transactions de la plus récente à la plus ancienne.
+     * Le curseur encode (dateTransaction, id) du dernier élément de la page précédente.
+     */
+    public PageTransactionsDTO listerPage(String curseur, Integer limite, String type, Long compteId) {
+        return listerPage(curseur, limite, type, compteId, null, null);
+    }
+
+    /**
+     * Historique d'un compte filtré par type et période (dates incluses), même pagination par curseur.
+     */
+    public PageTransactionsDTO listerPageCompte(Long compteId, String curseur, Integer limite, String type,
+            LocalDate dateDebut, LocalDate dateFin) {
+        if (!compteRepository.existsById(compteId)) {
+            throw new NoSuchElementException("Compte introuvable");
+        }
+        return listerPage(curseur, limite, type, compteId, dateDebut, dateFin);
+    }
+
+    private PageTransactionsDTO listerPage(String curseur, Integer limite, String type, Long compteId,
+            LocalDate dateDebut, LocalDate dateFin) {
+        if (dateDebut != null && dateFin != null && dateDebut.isAfter(dateFin)) {
+            throw new IllegalArgumentException("La date de début doit précéder la date de fin");
+        }
+        int taille = limite == null ? TAILLE_PAGE_DEFAUT : Math.min(Math.max(limite, 1), TAILLE_PAGE_MAX);
+        LocalDateTime date = DEBUT_PARCOURS;
+        Long id = Long.MAX_VALUE;
+        if (dateFin != null) {
+            // Tout le jour de fin : strictement avant minuit du lendemain
+            date = dateFin.plusDays(1).atStartOfDay();
+            id = Long.MIN_VALUE;
+        }
+        LocalDateTime depuis = dateDebut != null ? dateDebut.atStartOfDay() : FIN_PARCOURS;
+        if (curseur != null && !curseur.isBlank()) {
+            Curseur cle = decoderCurseur(curseur);
+            date = cle.date;
+            id = cle.id;
+        }
+        String typeFiltre = type == null || type.isBlank() ? null : type.toUpperCase();
+
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante
+        PageRequest page = PageRequest.of(0, taille + 1);
+        List<Transaction> lignes = compteId != null
+            ? transactionRepository.findPageAvantParCompte(compteId, depuis, date, id, typeFiltre, page)
+            : transactionRepository.findPageAvant(date, id, typeFiltre, page);
+
+        String suivant = null;
+        if (lignes.size() > taille) {
+            lignes = lignes.subList(0, taille);
+            Transaction derniere = lignes.get(taille - 1);
+            suivant = encoderCurseur(derniere.getDateTransaction(), derniere.getId());
+        }
+        return new PageTransactionsDTO(lignes, suivant, lignes.size());
+    }
+
+    static String encoderCurseur(LocalDateTime date, Long id) {
+        String cle = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cle.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Curseur decoderCurseur(String curseur) {
+        try {
+            String cle = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            int separateur = cle.indexOf('|');
+            return new Curseur(LocalDateTime.parse(cle.substring(0, separateur)),
+                Long.parseLong(cle.substring(separateur + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    static final class Curseur {
+        final LocalDateTime date;
+        final Long id;
+
+        Curseur(LocalDateTime date, Long id) {
+            this.date = date;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package egabank.api.devoir.benchmark;
+
+import egabank.api.devoir.DevoirApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Application complète sur une base H2 en mémoire propre à chaque fork JMH (nom de base unique),
+ * serveurs HTTP sur ports aléatoires. Journaux réduits aux erreurs pour ne pas polluer la sortie JMH.
+ */
+final class ContexteBenchmark {
+
+    private ContexteBenchmark() {
+    }
+
+    static ConfigurableApplicationContext demarrer(String... proprietes) {
+        String[] args = new String[proprietes.length + 5];
+        args[0] = "--server.port=0";
+        args[1] = "--management.server.port=0";
+        args[2] = "--spring.main.banner-mode=off";
+        args[3] = "--logging.level.root=ERROR";
+        args[4] = "--egabank.releves.lot.auto-resume=false";
+        for (int i = 0; i < proprietes.length; i++) {
+            args[5 + i] = "--" + proprietes[i];
+        }
+        return new SpringApplicationBuilder(DevoirApplication.class).run(args);
+    }
+}
@@ -0,0 +1,97 @@
+package egabank.api.devoir.benchmark;
+
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.service.CompteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passage à l'échelle des dépôts selon le nombre de threads (0 = un par cœur), chacun sur son propre
+ * compte : aucun verrou de compte partagé, seuls le pool JDBC et la base limitent le débit.
+ * Chaque invocation répartit 400 dépôts entre les threads : les débits (dépôts/s) se comparent
+ * directement d'un nombre de threads à l'autre.
+ * Lancement : mvn -Pbenchmarks verify -DskipTests -Djmh.include=DebitConcurrentBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebitConcurrentBenchmark {
+    private static final int DEPOTS_PAR_INVOCATION = 400;
+
+    @Param({"1", "2", "4", "0"})
+    private int threads;
+
+    private ConfigurableApplicationContext contexte;
+    private CompteService compteService;
+    private ExecutorService pool;
+    private Long[] comptes;
+
+    @Setup
+    public void preparer() {
+        if (threads == 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        contexte = ContexteBenchmark.demarrer();
+        compteService = contexte.getBean(CompteService.class);
+        CompteRepository compteRepository = contexte.getBean(CompteRepository.class);
+        comptes = new Long[threads];
+        for (int i = 0; i < threads; i++) {
+            Compte compte = new Compte();
+            compte.setNumeroCompte("BENCH" + i);
+            compte.setDateCreation(LocalDate.now());
+            compte.setTypeCompte("COURANT");
+            compte.setSolde(0);
+            comptes[i] = compteRepository.save(compte).getId();
+        }
+        pool = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void fermer() {
+        pool.shutdownNow();
+        contexte.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DEPOTS_PAR_INVOCATION)
+    public void deposer() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Long compteId = comptes[t];
+            // Reste de la division réparti sur les premiers threads
+            int depots = DEPOTS_PAR_INVOCATION / threads + (t < DEPOTS_PAR_INVOCATION % threads ? 1 : 0);
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < depots; i++) {
+                    compteService.deposer(compteId, 1, "ESPECES");
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+    }
+}
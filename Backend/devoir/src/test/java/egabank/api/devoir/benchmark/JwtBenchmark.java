@@ -0,0 +1,103 @@
+package egabank.api.devoir.benchmark;
+
+import egabank.api.devoir.security.JwtAuthenticationFilter;
+import egabank.api.devoir.security.JwtCache;
+import egabank.api.devoir.security.JwtUtil;
+import egabank.api.devoir.security.RevocationJetons;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et vérification (signature HS256 + claims) d'un jeton JWT, puis coût par requête de
+ * l'authentification. avant : les trois analyses de l'ancien filtre (extractUsername, isTokenValid,
+ * extractRole) ; filtreSansCache / filtreAvecCache : le filtre complet, avec contrôle de révocation
+ * (10 000 jetons révoqués, le jeton mesuré ne l'est pas) ; revocation : ce seul contrôle.
+ * Lancement : mvn -Pbenchmarks verify -DskipTests -Djmh.include=JwtBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private String jeton;
+    private MockHttpServletRequest requete;
+    private JwtAuthenticationFilter filtreSansCache;
+    private JwtAuthenticationFilter filtreAvecCache;
+    private RevocationJetons revocations;
+    private JwtCache.JetonVerifie verifie;
+
+    @Setup
+    public void preparer() {
+        jeton = JwtUtil.generateTokenWithRole("alice", "CLIENT");
+        requete = new MockHttpServletRequest("GET", "/comptes");
+        requete.addHeader("Authorization", "Bearer " + jeton);
+        JwtCache cache = new JwtCache(true, 10_000, new SimpleMeterRegistry());
+        JwtCache verification = new JwtCache(false, 0, new SimpleMeterRegistry());
+        revocations = new RevocationJetons(100_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            revocations.revoquer(verification.verifier(JwtUtil.generateTokenWithRole("client" + i, "CLIENT")));
+        }
+        verifie = cache.verifier(jeton);
+        filtreSansCache = new JwtAuthenticationFilter(verification, revocations);
+        filtreAvecCache = new JwtAuthenticationFilter(cache, revocations);
+    }
+
+    @Benchmark
+    public String generer() {
+        return JwtUtil.generateTokenWithRole("alice", "CLIENT");
+    }
+
+    @Benchmark
+    public Claims analyser() {
+        return JwtUtil.getClaims(jeton);
+    }
+
+    @Benchmark
+    public void avant(Blackhole bh) {
+        bh.consume(JwtUtil.extractUsername(jeton));
+        bh.consume(JwtUtil.isTokenValid(jeton));
+        bh.consume(JwtUtil.extractRole(jeton));
+    }
+
+    @Benchmark
+    public Object filtreSansCache() throws Exception {
+        return filtrer(filtreSansCache);
+    }
+
+    @Benchmark
+    public Object filtreAvecCache() throws Exception {
+        return filtrer(filtreAvecCache);
+    }
+
+    @Benchmark
+    public boolean revocation() {
+        return revocations.estRevoque(verifie);
+    }
+
+    private Object filtrer(JwtAuthenticationFilter filtre) throws Exception {
+        filtre.doFilter(requete, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentification = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentification;
+    }
+}
@@ -0,0 +1,58 @@
+package egabank.api.devoir.benchmark;
+
+import egabank.api.devoir.security.LimiteurDebit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût par requête du limiteur de débit, sur 8 threads.
+ * utilisateursDistincts : cas courant, seaux distincts ; memeUtilisateur : un seul seau disputé
+ * (une intégration qui inonde l'API, la plupart des appels sont refusés).
+ * Lancement :
+ * mvn -Pbenchmarks verify -DskipTests -Djmh.include=LimiteurDebitBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class LimiteurDebitBenchmark {
+
+    private LimiteurDebit limiteur;
+    private String[] sujets;
+
+    @Setup
+    public void preparer() {
+        // Écritures à débit très élevé (jamais refusées), lectures à 1 par seconde (seau vite vidé)
+        limiteur = new LimiteurDebit(true, 1_000, 1e9, 1_000, 1e9, 1_000, 1);
+        sujets = new String[10_000];
+        for (int i = 0; i < sujets.length; i++) {
+            sujets[i] = "client" + i;
+        }
+    }
+
+    @Benchmark
+    public long utilisateursDistincts() {
+        return limiteur.consommer(sujets[ThreadLocalRandom.current().nextInt(sujets.length)],
+            LimiteurDebit.Classe.ECRITURES);
+    }
+
+    @Benchmark
+    public long memeUtilisateur() {
+        return limiteur.consommer("integration", LimiteurDebit.Classe.LECTURES);
+    }
+}
@@ -0,0 +1,115 @@
+package egabank.api.devoir.benchmark;
+
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.service.CompteService;
+import egabank.api.devoir.service.GroupCommitLedger;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Débit des écritures (dépôt, virement) de CompteService sur H2 en mémoire : verrou de compte,
+ * transaction, solde journalier, invalidation du cache des relevés et statistiques compris.
+ * Comptes tirés au hasard parmi 100, 8 appelants concurrents, chemin direct (un commit par écriture)
+ * contre group commit. Throughput : écritures/s et commits/s (compteur auxiliaire "commits") ;
+ * SampleTime : distribution de la latence d'une écriture, p99 compris.
+ * Lancement : mvn -Pbenchmarks verify -DskipTests -Djmh.include=OperationsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class OperationsBenchmark {
+    private static final int COMPTES = 100;
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    private ConfigurableApplicationContext contexte;
+    private CompteService compteService;
+    private GroupCommitLedger ledger;
+    // Dernière valeur du compteur de commits du ledger répartie entre les threads
+    private final AtomicLong commitsVus = new AtomicLong();
+    private Long[] comptes;
+
+    @Setup
+    public void preparer() {
+        contexte = ContexteBenchmark.demarrer("egabank.posting.group-commit.enabled=" + groupCommit);
+        compteService = contexte.getBean(CompteService.class);
+        ledger = contexte.getBean(GroupCommitLedger.class);
+        CompteRepository compteRepository = contexte.getBean(CompteRepository.class);
+        comptes = new Long[COMPTES];
+        for (int i = 0; i < COMPTES; i++) {
+            Compte compte = new Compte();
+            compte.setNumeroCompte("BENCH" + i);
+            compte.setDateCreation(LocalDate.now());
+            compte.setTypeCompte("COURANT");
+            compte.setSolde(1_000_000_000);
+            comptes[i] = compteRepository.save(compte).getId();
+        }
+    }
+
+    @TearDown
+    public void fermer() {
+        contexte.close();
+    }
+
+    @Benchmark
+    public void deposer(Commits compteur) {
+        compteService.deposer(comptes[ThreadLocalRandom.current().nextInt(COMPTES)], 100, "ESPECES");
+        compter(compteur);
+    }
+
+    @Benchmark
+    public void transferer(Commits compteur) {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        int source = aleatoire.nextInt(COMPTES);
+        int destination = (source + 1 + aleatoire.nextInt(COMPTES - 1)) % COMPTES;
+        compteService.transferer(comptes[source], 1, comptes[destination]);
+        compter(compteur);
+    }
+
+    // Chemin direct : une transaction par écriture. Group commit : les commits du ledger depuis le
+    // dernier relevé, tous threads confondus (getAndSet : la somme des écarts reste exacte)
+    private void compter(Commits compteur) {
+        if (ledger.isActif()) {
+            long total = ledger.getNombreCommits();
+            compteur.commits += total - commitsVus.getAndSet(total);
+        } else {
+            compteur.commits++;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Commits {
+        public long commits;
+
+        @Setup(Level.Iteration)
+        public void remettreAZero() {
+            commits = 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package egabank.api.devoir.benchmark;
+
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.service.ReleveService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relevé d'un compte sur H2 en mémoire, selon le nombre de transactions de la période :
+ * donnees = chargement et agrégation (totaux, soldes), pdf = résumé puis rendu complet du PDF,
+ * rendu = rendu seul à partir d'un résumé déjà calculé (gc.alloc.rate.norm = octets alloués par relevé).
+ * Lancement : mvn -Pbenchmarks verify -DskipTests -Djmh.include=ReleveBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ReleveBenchmark {
+    // Plage d'identifiants hors de celle des séquences Hibernate
+    private static final long ID_BASE = 4_000_000_000L;
+    private static final LocalDate DEBUT = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2024, 12, 31);
+
+    @Param({"100", "10000", "100000"})
+    private int transactions;
+
+    private ConfigurableApplicationContext contexte;
+    private ReleveService releveService;
+    private Long compteId;
+    private ReleveDTO resume;
+
+    @Setup
+    public void preparer() {
+        contexte = ContexteBenchmark.demarrer();
+        releveService = contexte.getBean(ReleveService.class);
+        Compte compte = new Compte();
+        compte.setNumeroCompte("BENCH");
+        compte.setDateCreation(DEBUT);
+        compte.setTypeCompte("COURANT");
+        compte.setSolde(0);
+        compteId = contexte.getBean(CompteRepository.class).save(compte).getId();
+
+        // Transactions réparties sur l'année, insérées par lots JDBC
+        JdbcTemplate jdbcTemplate = contexte.getBean(JdbcTemplate.class);
+        LocalDateTime origine = DEBUT.atStartOfDay();
+        long pasSecondes = 365L * 24 * 3600 / transactions;
+        List<Object[]> lot = new ArrayList<>(10_000);
+        for (int i = 0; i < transactions; i++) {
+            lot.add(new Object[] {ID_BASE + i, compteId, Timestamp.valueOf(origine.plusSeconds(i * pasSecondes)),
+                i % 3 == 0 ? "RETRAIT" : "DEPOT", 1_500 + i % 1_000});
+            if (lot.size() == 10_000) {
+                inserer(jdbcTemplate, lot);
+                lot.clear();
+            }
+        }
+        inserer(jdbcTemplate, lot);
+        resume = releveService.obtenirResumeReleve(compteId, DEBUT, FIN);
+    }
+
+    private static void inserer(JdbcTemplate jdbcTemplate, List<Object[]> lot) {
+        jdbcTemplate.batchUpdate("insert into transaction (id, compte_id, numero_compte, date_transaction, type, montant) "
+            + "values (?, ?, 'BENCH', ?, ?, ?)", lot);
+    }
+
+    @TearDown
+    public void fermer() {
+        contexte.close();
+    }
+
+    @Benchmark
+    public ReleveDTO donnees() {
+        return releveService.obtenirDonneesReleve(compteId, DEBUT, FIN);
+    }
+
+    @Benchmark
+    public void pdf() {
+        ReleveDTO releve = releveService.obtenirResumeReleve(compteId, DEBUT, FIN);
+        releveService.ecrireRelevePdf(releve, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void rendu() {
+        releveService.ecrireRelevePdf(resume, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,194 @@
+package egabank.api.devoir.config;
+
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.ClientRepository;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.security.JwtUtil;
+import egabank.api.devoir.service.CompteService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Plafond de requêtes SQL pour chaque endpoint : un N+1 ou un chargement de trop fait échouer le build.
+ * Réponses en flux (PDF, ZIP, exports) : seule la partie synchrone, avant le premier octet, est comptée.
+ */
+@SpringBootTest(properties = {
+    "egabank.sql.header.enabled=true",
+    "egabank.rate-limit.enabled=false",
+    "egabank.releves.lot.directory=target/compteur-requetes/lots"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CompteurRequetesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private CompteService compteService;
+
+    private final String jeton = "Bearer " + JwtUtil.generateTokenWithRole("admin", "ADMIN");
+    // Lectures : six comptes de deux dépôts chacun
+    private Client client;
+    private Compte compte;
+    // Écritures : comptes à part pour ne pas modifier ceux des lectures
+    private Client titulaire;
+    private Compte source;
+    private Compte destination;
+
+    @BeforeAll
+    void preparer() {
+        client = nouveauClient("MENSAH");
+        for (int i = 0; i < 6; i++) {
+            compte = Comptes.nouveau(compteRepository, client, 0);
+            compteService.deposer(compte.getId(), 100, "ESPECES");
+            compteService.deposer(compte.getId(), 50, "ESPECES");
+        }
+        titulaire = nouveauClient("AKAKPO");
+        source = Comptes.nouveau(compteRepository, titulaire, 10_000);
+        destination = Comptes.nouveau(compteRepository, titulaire, 0);
+    }
+
+    private Client nouveauClient(String nom) {
+        return clientRepository.save(new Client(null, nom, "KOSSI", LocalDate.of(1985, 3, 3), "M", "LOME",
+            "92000000", "TOGOLAISE", null, null));
+    }
+
+    private static String clientJson(String nom) {
+        return "{\"nom\":\"" + nom + "\",\"prenom\":\"Afi\",\"dnaissance\":\"1990-01-01\",\"sexe\":\"F\","
+            + "\"adresse\":\"LOME\",\"tel\":\"90000000\",\"nationalite\":\"TOGOLAISE\"}";
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder requete, String corps) {
+        return requete.contentType(MediaType.APPLICATION_JSON).content(corps);
+    }
+
+    private Arguments cas(MockHttpServletRequestBuilder requete, int plafond) {
+        return Arguments.of(requete.header(HttpHeaders.AUTHORIZATION, jeton), plafond);
+    }
+
+    Stream<Arguments> endpoints() {
+        String periode = "?dateDebut=" + LocalDate.now().minusMonths(1) + "&dateFin=" + LocalDate.now();
+        String mois = YearMonth.now().minusMonths(1).toString();
+        Compte aSupprimer = Comptes.nouveau(compteRepository, 0);
+        Client clientASupprimer = nouveauClient("DOSSOU");
+        Comptes.nouveau(compteRepository, clientASupprimer, 0);
+        return Stream.of(
+            // Clients
+            cas(get("/clients"), 1),
+            cas(get("/clients/" + client.getId()), 3),
+            cas(json(post("/clients"), clientJson("ADJOVI")), 1),
+            cas(json(put("/clients/" + titulaire.getId()), clientJson("AKAKPO")), 5),
+            cas(delete("/clients/" + clientASupprimer.getId()), 6),
+            // Comptes
+            cas(get("/comptes"), 1),
+            cas(get("/comptes/" + compte.getId()), 2),
+            cas(json(post("/comptes"), "{\"typeCompte\":\"COURANT\",\"solde\":0}"), 1),
+            cas(json(put("/comptes/" + destination.getId()), "{\"typeCompte\":\"EPARGNE\"}"), 3),
+            cas(delete("/comptes/" + aSupprimer.getId()), 4),
+            // Écritures
+            cas(json(post("/comptes/" + source.getId() + "/deposer"), "{\"montant\":100,\"origineFonds\":\"ESPECES\"}"), 5),
+            cas(json(post("/comptes/" + source.getId() + "/retirer"), "{\"montant\":50}"), 5),
+            cas(json(post("/comptes/" + source.getId() + "/transferer"),
+                "{\"montant\":10,\"id\":" + destination.getId() + "}"), 8),
+            cas(json(post("/comptes/operations/batch"), "[{\"type\":\"DEPOT\",\"compteId\":" + source.getId()
+                + ",\"montant\":5,\"origineFonds\":\"ESPECES\"},{\"type\":\"RETRAIT\",\"compteId\":" + destination.getId()
+                + ",\"montant\":1}]"), 7),
+            // Transactions
+            cas(get("/transactions"), 2),
+            cas(get("/comptes/" + compte.getId() + "/transactions"), 3),
+            cas(get("/transactions/export?format=csv"), 0),
+            // Statistiques
+            cas(get("/stats/dashboard"), 0),
+            cas(post("/stats/dashboard/reconstruire"), 3),
+            cas(get("/stats/releves"), 0),
+            // Relevés
+            cas(get("/api/releves/compte/" + compte.getId() + periode), 6),
+            cas(get("/api/releves/compte/" + compte.getId() + "/summary" + periode), 5),
+            cas(get("/api/releves/compte/" + compte.getId() + "/pdf" + periode), 6),
+            cas(get("/api/releves/compte/" + compte.getId() + "/zip" + periode), 9),
+            // Consolidé : résumé de chacun des six comptes du client
+            cas(get("/api/releves/client/" + client.getId() + periode), 32),
+            cas(get("/api/releves/client/" + client.getId() + "/pdf" + periode), 32),
+            cas(post("/api/releves/lots?mois=" + mois), 0),
+            cas(get("/api/releves/lots/" + mois), 0),
+            cas(get("/api/releves/lots"), 0),
+            // Authentification
+            cas(json(post("/auth/login"), "{\"username\":\"kossi\",\"password\":\"CLIENT2026\"}"), 0),
+            // Jeton propre : la déconnexion le révoque
+            Arguments.of(post("/auth/logout").header(HttpHeaders.AUTHORIZATION,
+                "Bearer " + JwtUtil.generateTokenWithRole("deconnexion", "ADMIN")), 0),
+            cas(json(post("/auth/revocations"), "{\"username\":\"inconnu\"}"), 0)
+        );
+    }
+
+    @ParameterizedTest(name = "[{index}] au plus {1} requêtes SQL")
+    @MethodSource("endpoints")
+    void requetesSqlBornees(MockHttpServletRequestBuilder requete, int plafond) throws Exception {
+        MvcResult resultat = mockMvc.perform(requete)
+            .andExpect(status().is2xxSuccessful())
+            .andExpect(RequetesSql.auPlus(plafond))
+            .andReturn();
+        if (resultat.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(resultat)).andExpect(status().is2xxSuccessful());
+        }
+    }
+
+    // Maintenance : une reconstruction par compte, rien de plus
+    @Test
+    void reconstructionDesSoldesLineaire() throws Exception {
+        int comptes = (int) compteRepository.count();
+        mockMvc.perform(post("/comptes/soldes-journaliers/reconstruire").header(HttpHeaders.AUTHORIZATION, jeton))
+            .andExpect(status().isOk())
+            .andExpect(RequetesSql.auPlus(1 + 3 * comptes));
+    }
+
+    // Comptes et transactions du client chargés par lots, pas un SELECT par compte
+    @Test
+    void clientDetailleSansNPlusUn() throws Exception {
+        mockMvc.perform(get("/clients/" + client.getId()).header(HttpHeaders.AUTHORIZATION, jeton))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.comptes.length()").value(6))
+            .andExpect(jsonPath("$.comptes[0].transactions.length()").value(2))
+            .andExpect(RequetesSql.auPlus(3));
+    }
+
+    @Test
+    void entetesDeDeveloppement() throws Exception {
+        mockMvc.perform(get("/comptes/" + compte.getId()).header(HttpHeaders.AUTHORIZATION, jeton))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(CompteurRequetesFilter.ENTETE_REQUETES))
+            .andExpect(header().exists(CompteurRequetesFilter.ENTETE_DUREE))
+            .andExpect(jsonPath("$.transactions.length()").value(2));
+    }
+}
@@ -0,0 +1,31 @@
+package egabank.api.devoir.config;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plafond de requêtes SQL par endpoint, pour MockMvc :
+ * mockMvc.perform(get("/clients/1")).andExpect(RequetesSql.auPlus(3));
+ * Lit la mesure posée par CompteurRequetesFilter (sérialisation JSON comprise).
+ */
+public final class RequetesSql {
+
+    private RequetesSql() {
+    }
+
+    public static ResultMatcher auPlus(int max) {
+        return resultat -> {
+            CompteurRequetesSql.Mesure mesure = mesure(resultat.getRequest().getAttribute(CompteurRequetesFilter.ATTRIBUT_MESURE));
+            assertTrue(mesure.getRequetes() <= max, () -> resultat.getRequest().getMethod() + " "
+                + resultat.getRequest().getRequestURI() + " : " + mesure.getRequetes() + " requêtes SQL (max " + max
+                + "), la plus répétée " + mesure.getRepetitions() + " fois : " + mesure.getPlusRepetee());
+        };
+    }
+
+    private static CompteurRequetesSql.Mesure mesure(Object attribut) {
+        assertNotNull(attribut, "CompteurRequetesFilter absent de la chaîne MockMvc");
+        return (CompteurRequetesSql.Mesure) attribut;
+    }
+}
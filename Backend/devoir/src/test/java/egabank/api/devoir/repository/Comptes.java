@@ -0,0 +1,36 @@
+package egabank.api.devoir.repository;
+
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.entity.Compte;
+
+import java.time.LocalDate;
+
+/**
+ * Comptes de test enregistrés directement, sans passer par CompteService (ni statistiques ni écritures) :
+ * Compte compte = Comptes.nouveau(compteRepository, 100);
+ */
+public final class Comptes {
+
+    private Comptes() {
+    }
+
+    public static Compte nouveau(CompteRepository compteRepository, int solde) {
+        return nouveau(compteRepository, null, solde);
+    }
+
+    // Compte courant ouvert aujourd'hui, numéro unique
+    public static Compte nouveau(CompteRepository compteRepository, Client client, int solde) {
+        return nouveau(compteRepository, client, solde, LocalDate.now());
+    }
+
+    // Ouvert à une date passée, pour des historiques antérieurs à aujourd'hui
+    public static Compte nouveau(CompteRepository compteRepository, Client client, int solde, LocalDate ouverture) {
+        Compte compte = new Compte();
+        compte.setNumeroCompte(String.valueOf(System.nanoTime()));
+        compte.setDateCreation(ouverture);
+        compte.setTypeCompte("COURANT");
+        compte.setSolde(solde);
+        compte.setClient(client);
+        return compteRepository.save(compte);
+    }
+}
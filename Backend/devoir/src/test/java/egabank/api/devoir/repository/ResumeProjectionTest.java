@@ -0,0 +1,70 @@
+package egabank.api.devoir.repository;
+
+import egabank.api.devoir.dto.ClientResumeDTO;
+import egabank.api.devoir.dto.CompteResumeDTO;
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.service.CompteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class ResumeProjectionTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private CompteService compteService;
+
+    @Test
+    void resumesClientEtCompte() {
+        Client client = new Client();
+        client.setNom("KAO");
+        client.setPrenom("ALEXANDRE");
+        client.setDnaissance(LocalDate.of(2000, 1, 1));
+        client.setSexe("M");
+        client.setAdresse("LOME");
+        client.setTel("90000000");
+        client.setNationalite("TOGOLAISE");
+        client = clientRepository.save(client);
+        Client sansCompte = new Client(null, "AMA", "KOFFI", LocalDate.of(1990, 5, 5), "F", "KARA", "91000000",
+            "TOGOLAISE", null, null);
+        sansCompte = clientRepository.save(sansCompte);
+
+        Compte actif = Comptes.nouveau(compteRepository, client, 100);
+        Compte inactif = Comptes.nouveau(compteRepository, client, 50);
+        compteService.deposer(actif.getId(), 25, "ESPECES");
+
+        Long clientId = client.getId();
+        ClientResumeDTO resume = clientRepository.findResumes().stream()
+            .filter(r -> r.getId().equals(clientId)).findFirst().orElseThrow();
+        assertEquals(2L, resume.getNombreComptes());
+        assertEquals(175L, resume.getSoldeTotal());
+
+        Long sansCompteId = sansCompte.getId();
+        ClientResumeDTO vide = clientRepository.findResumes().stream()
+            .filter(r -> r.getId().equals(sansCompteId)).findFirst().orElseThrow();
+        assertEquals(0L, vide.getNombreComptes());
+        assertEquals(0L, vide.getSoldeTotal());
+
+        CompteResumeDTO compteActif = compteRepository.findResumes().stream()
+            .filter(r -> r.getId().equals(actif.getId())).findFirst().orElseThrow();
+        assertEquals(125, compteActif.getSolde());
+        assertEquals(clientId, compteActif.getClientId());
+        assertEquals("KAO", compteActif.getClientNom());
+        assertNotNull(compteActif.getDerniereActivite());
+
+        CompteResumeDTO compteInactif = compteRepository.findResumes().stream()
+            .filter(r -> r.getId().equals(inactif.getId())).findFirst().orElseThrow();
+        assertNull(compteInactif.getDerniereActivite());
+    }
+}
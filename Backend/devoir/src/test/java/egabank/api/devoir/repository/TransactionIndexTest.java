@@ -0,0 +1,90 @@
+package egabank.api.devoir.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Requêtes de relevé et de pagination servies par les index de Transaction (plan H2 via EXPLAIN).
+ * Latence à volume réel : ReleveBenchmark dans le profil benchmarks.
+ */
+@SpringBootTest
+class TransactionIndexTest {
+
+    // Plage d'identifiants hors de celle des séquences Hibernate
+    private static final long ID_BASE = 1_000_000_000L;
+    private static final int COMPTES = 20;
+    private static final int TRANSACTIONS = 2_000;
+    private static final LocalDateTime DEBUT = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final LocalDateTime FIN = LocalDateTime.of(2024, 6, 30, 23, 59, 59);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private int attendusJuin;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> comptes = new ArrayList<>();
+        for (int c = 0; c < COMPTES; c++) {
+            comptes.add(new Object[] {ID_BASE + c, "BENCH" + c});
+        }
+        jdbcTemplate.batchUpdate("insert into compte (id, numero_compte, type_compte, solde) values (?, ?, 'COURANT', 0)", comptes);
+
+        LocalDateTime origine = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> lot = new ArrayList<>(TRANSACTIONS);
+        attendusJuin = 0;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            int c = i % COMPTES;
+            // ~ une année d'historique par compte
+            LocalDateTime date = origine.plusMinutes((long) (i / COMPTES) * 525_600L / (TRANSACTIONS / COMPTES));
+            lot.add(new Object[] {ID_BASE + i, ID_BASE + c, "BENCH" + c, Timestamp.valueOf(date)});
+            if (c == 7 && !date.isBefore(DEBUT) && !date.isAfter(FIN)) {
+                attendusJuin++;
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into transaction (id, compte_id, numero_compte, date_transaction, type, montant) "
+            + "values (?, ?, ?, ?, 'DEPOT', 100)", lot);
+    }
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("delete from transaction where id >= ?", ID_BASE);
+        jdbcTemplate.update("delete from compte where id >= ?", ID_BASE);
+    }
+
+    @Test
+    void releveMensuelParCompteEtDate() {
+        assertTrue(attendusJuin > 0);
+        assertEquals(attendusJuin, transactionRepository.findByCompteIdAndDateBetween(ID_BASE + 7, DEBUT, FIN).size());
+
+        assertIndex("IDX_TRANSACTION_COMPTE_DATE", "select id from transaction where compte_id = " + (ID_BASE + 7)
+            + " and date_transaction between timestamp '2024-06-01 00:00:00' and timestamp '2024-06-30 23:59:59'"
+            + " order by date_transaction desc");
+    }
+
+    @Test
+    void rechercheParNumeroEtPaginationGlobale() {
+        assertIndex("IDX_TRANSACTION_NUMERO_COMPTE", "select count(*) from transaction where numero_compte = 'BENCH7'");
+        assertIndex("IDX_TRANSACTION_DATE_ID", "select id from transaction where date_transaction < timestamp '2024-06-01 00:00:00'"
+            + " order by date_transaction desc, id desc limit 50");
+    }
+
+    private void assertIndex(String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertTrue(plan.toUpperCase().contains(index), plan);
+    }
+}
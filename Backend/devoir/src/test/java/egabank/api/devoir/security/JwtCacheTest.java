@@ -0,0 +1,66 @@
+package egabank.api.devoir.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtCacheTest {
+
+    @Test
+    void jetonValideVerifieUneFoisPuisServiDuCache() {
+        JwtCache cache = new JwtCache(true, 100, new SimpleMeterRegistry());
+        String token = JwtUtil.generateTokenWithRole("alice", "ADMIN");
+
+        JwtCache.JetonVerifie premier = cache.verifier(token);
+        assertNotNull(premier);
+        assertEquals("alice", premier.getUsername());
+        assertEquals("ROLE_ADMIN", premier.getAuthorities().get(0).getAuthority());
+        assertSame(premier, cache.verifier(token));
+        assertEquals(1, cache.taille());
+    }
+
+    @Test
+    void jetonFalsifieOuMalFormeRefuseEtNonMemorise() {
+        JwtCache cache = new JwtCache(true, 100, new SimpleMeterRegistry());
+        String token = JwtUtil.generateTokenWithRole("alice", "CLIENT");
+        String[] parties = token.split("\\.");
+        String autre = JwtUtil.generateTokenWithRole("mallory", "ADMIN").split("\\.")[1];
+
+        assertNull(cache.verifier(parties[0] + "." + autre + "." + parties[2]));
+        assertNull(cache.verifier("pas-un-jeton"));
+        assertEquals(0, cache.taille());
+    }
+
+    @Test
+    void entreeRetireeALExpirationDuJeton() throws Exception {
+        JwtCache cache = new JwtCache(true, 100, new SimpleMeterRegistry());
+        String token = Jwts.builder()
+            .setSubject("alice")
+            .claim("role", "CLIENT")
+            .setExpiration(new Date(System.currentTimeMillis() + 1_500))
+            .signWith(SignatureAlgorithm.HS256, "secret")
+            .compact();
+
+        assertNotNull(cache.verifier(token));
+        Thread.sleep(2_000);
+        assertNull(cache.verifier(token));
+        assertEquals(0, cache.taille());
+    }
+
+    @Test
+    void cachePleinPurgeOuVerifieSansMemoriser() {
+        JwtCache cache = new JwtCache(true, 2, new SimpleMeterRegistry());
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(cache.verifier(JwtUtil.generateTokenWithRole("client" + i, "CLIENT")));
+        }
+        assertEquals(2, cache.taille());
+    }
+}
@@ -0,0 +1,97 @@
+package egabank.api.devoir.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiteurDebitTest {
+
+    @Test
+    void rafaleAccepteePuisRefusAvecDelai() {
+        LimiteurDebit limiteur = new LimiteurDebit(true, 5, 1, 5, 1, 5, 1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiteur.consommer("alice", LimiteurDebit.Classe.ECRITURES));
+        }
+        long attente = limiteur.consommer("alice", LimiteurDebit.Classe.ECRITURES);
+        assertTrue(attente > 0 && attente <= TimeUnit.SECONDS.toNanos(1), "attente : " + attente);
+        assertEquals(1, limiteur.rejets(LimiteurDebit.Classe.ECRITURES));
+
+        // Seaux séparés par utilisateur et par classe
+        assertEquals(0, limiteur.consommer("bob", LimiteurDebit.Classe.ECRITURES));
+        assertEquals(0, limiteur.consommer("alice", LimiteurDebit.Classe.LECTURES));
+    }
+
+    @Test
+    void seauSeRemplitAuDebitConfigure() throws Exception {
+        LimiteurDebit limiteur = new LimiteurDebit(true, 2, 20, 2, 20, 2, 20);
+        assertEquals(0, limiteur.consommer("alice", LimiteurDebit.Classe.RELEVES));
+        assertEquals(0, limiteur.consommer("alice", LimiteurDebit.Classe.RELEVES));
+        assertTrue(limiteur.consommer("alice", LimiteurDebit.Classe.RELEVES) > 0);
+
+        Thread.sleep(120);
+        assertEquals(0, limiteur.consommer("alice", LimiteurDebit.Classe.RELEVES));
+        assertEquals(0, limiteur.consommer("alice", LimiteurDebit.Classe.RELEVES));
+    }
+
+    @Test
+    void accesConcurrentsNeDepassentPasLaCapacite() throws Exception {
+        LimiteurDebit limiteur = new LimiteurDebit(true, 100, 0.001, 1, 1, 1, 1);
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    depart.await();
+                    int acceptes = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiteur.consommer("integration", LimiteurDebit.Classe.ECRITURES) == 0) {
+                            acceptes++;
+                        }
+                    }
+                    return acceptes;
+                }));
+            }
+            depart.countDown();
+            int total = 0;
+            for (Future<Integer> f : futures) {
+                total += f.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(100, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void seauxPleinsEvinces() throws Exception {
+        LimiteurDebit limiteur = new LimiteurDebit(true, 10, 1, 10, 1, 10, 1_000);
+        limiteur.consommer("alice", LimiteurDebit.Classe.LECTURES);
+        limiteur.consommer("bob", LimiteurDebit.Classe.ECRITURES);
+        Thread.sleep(20);
+
+        limiteur.evincer();
+
+        assertEquals(1, limiteur.taille());
+    }
+
+    @Test
+    void classesDEndpoints() {
+        assertEquals(LimiteurDebit.Classe.ECRITURES, LimiteurDebit.classer("POST", "/comptes/12/transferer"));
+        assertEquals(LimiteurDebit.Classe.ECRITURES, LimiteurDebit.classer("POST", "/comptes/operations/batch"));
+        assertEquals(LimiteurDebit.Classe.RELEVES, LimiteurDebit.classer("GET", "/api/releves/compte/3/pdf"));
+        assertEquals(LimiteurDebit.Classe.LECTURES, LimiteurDebit.classer("GET", "/comptes/3/transactions"));
+        assertNull(LimiteurDebit.classer("POST", "/comptes"));
+        assertNull(LimiteurDebit.classer("POST", "/auth/logout"));
+    }
+}
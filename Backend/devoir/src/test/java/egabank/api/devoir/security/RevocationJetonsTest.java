@@ -0,0 +1,81 @@
+package egabank.api.devoir.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationJetonsTest {
+
+    private final JwtCache cache = new JwtCache(true, 1000, new SimpleMeterRegistry());
+
+    @Test
+    void jetonRevoqueSeulLesAutresConnexionsRestentValides() {
+        RevocationJetons revocations = new RevocationJetons(1000, 0.01);
+        JwtCache.JetonVerifie premier = cache.verifier(JwtUtil.generateTokenWithRole("alice", "CLIENT"));
+        JwtCache.JetonVerifie second = cache.verifier(JwtUtil.generateTokenWithRole("alice", "CLIENT"));
+
+        revocations.revoquer(premier);
+
+        assertTrue(revocations.estRevoque(premier));
+        assertFalse(revocations.estRevoque(second));
+    }
+
+    @Test
+    void reconnexionJusteApresRevocationAcceptee() throws Exception {
+        RevocationJetons revocations = new RevocationJetons(1000, 0.01);
+        JwtCache.JetonVerifie ancien = cache.verifier(JwtUtil.generateTokenWithRole("bob", "CLIENT"));
+        JwtCache.JetonVerifie autre = cache.verifier(JwtUtil.generateTokenWithRole("carole", "CLIENT"));
+
+        revocations.revoquerUtilisateur("bob");
+        // Dans la même seconde que la révocation : seule la milliseconde doit changer
+        Thread.sleep(2);
+        JwtCache.JetonVerifie nouveau = cache.verifier(JwtUtil.generateTokenWithRole("bob", "CLIENT"));
+
+        assertTrue(revocations.estRevoque(ancien));
+        assertFalse(revocations.estRevoque(autre));
+        assertFalse(revocations.estRevoque(nouveau));
+    }
+
+    @Test
+    void compactionOublieLesJetonsExpires() throws Exception {
+        RevocationJetons revocations = new RevocationJetons(1000, 0.01);
+        JwtCache.JetonVerifie court = cache.verifier(Jwts.builder()
+            .setSubject("alice")
+            .setIssuedAt(new Date())
+            .setExpiration(new Date(System.currentTimeMillis() + 1_500))
+            .signWith(SignatureAlgorithm.HS256, "secret")
+            .compact());
+        JwtCache.JetonVerifie durable = cache.verifier(JwtUtil.generateTokenWithRole("alice", "CLIENT"));
+        revocations.revoquer(court);
+        revocations.revoquer(durable);
+
+        Thread.sleep(2_000);
+        revocations.compacter();
+
+        assertEquals(1, revocations.taille());
+        assertTrue(revocations.estRevoque(durable));
+    }
+
+    @Test
+    void filtreDeBloomSansFauxNegatifEtAuTauxVise() {
+        FiltreBloom filtre = new FiltreBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtre.ajouter("revoque-" + i);
+        }
+        int fauxPositifs = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filtre.contient("revoque-" + (i % 10_000)));
+            if (filtre.contient("valide-" + i)) {
+                fauxPositifs++;
+            }
+        }
+        assertTrue(fauxPositifs < 2_000, "faux positifs : " + fauxPositifs);
+    }
+}
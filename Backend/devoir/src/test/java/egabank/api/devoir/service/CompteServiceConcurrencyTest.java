@@ -0,0 +1,113 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.exception.SoldeInsuffisantException;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CompteServiceConcurrencyTest {
+
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private MeterRegistry registry;
+
+    private void executerEnParallele(int threads, List<Runnable> taches) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable tache : taches) {
+                futures.add(pool.submit(tache));
+            }
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void depotsConcurrentsSurUnCompteChaudSansPerteDeMiseAJour() throws Exception {
+        Compte compte = Comptes.nouveau(compteRepository, 0);
+        int threads = 8;
+        int depotsParThread = 50;
+
+        List<Runnable> taches = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            taches.add(() -> {
+                for (int i = 0; i < depotsParThread; i++) {
+                    compteService.deposer(compte.getId(), 1, "ESPECES");
+                }
+            });
+        }
+        executerEnParallele(threads, taches);
+
+        assertEquals(threads * depotsParThread, compteRepository.findById(compte.getId()).orElseThrow().getSolde());
+        assertEquals(threads * depotsParThread,
+            transactionRepository.findByCompteIdOrderByDateTransactionDesc(compte.getId()).size());
+        assertTrue(registry.get("egabank.operations").tag("type", "depot").timer().count() >= threads * depotsParThread);
+    }
+
+    @Test
+    void retraitsRefusesComptesEtChronometres() {
+        Compte compte = Comptes.nouveau(compteRepository, 100);
+        double refusAvant = registry.get("egabank.operations.solde.insuffisant").tag("type", "retrait").counter().count();
+        long retraitsAvant = registry.get("egabank.operations").tag("type", "retrait").timer().count();
+
+        compteService.retirer(compte.getId(), 60);
+        assertThrows(SoldeInsuffisantException.class, () -> compteService.retirer(compte.getId(), 60));
+
+        assertEquals(refusAvant + 1,
+            registry.get("egabank.operations.solde.insuffisant").tag("type", "retrait").counter().count());
+        assertEquals(retraitsAvant + 2, registry.get("egabank.operations").tag("type", "retrait").timer().count());
+    }
+
+    @Test
+    void virementsCroisesSansInterblocageEtSoldeConserve() throws Exception {
+        Compte a = Comptes.nouveau(compteRepository, 10_000);
+        Compte b = Comptes.nouveau(compteRepository, 10_000);
+        int threads = 8;
+
+        List<Runnable> taches = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            boolean sens = t % 2 == 0;
+            taches.add(() -> {
+                for (int i = 0; i < 50; i++) {
+                    if (sens) {
+                        compteService.transferer(a.getId(), 3, b.getId());
+                    } else {
+                        compteService.transferer(b.getId(), 3, a.getId());
+                    }
+                }
+            });
+        }
+        executerEnParallele(threads, taches);
+
+        int soldeA = compteRepository.findById(a.getId()).orElseThrow().getSolde();
+        int soldeB = compteRepository.findById(b.getId()).orElseThrow().getSolde();
+        assertEquals(20_000, soldeA + soldeB);
+        assertEquals(10_000, soldeA);
+    }
+}
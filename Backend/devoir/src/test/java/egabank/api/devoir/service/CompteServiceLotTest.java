@@ -0,0 +1,59 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.OperationLotDTO;
+import egabank.api.devoir.dto.ResultatOperationDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CompteServiceLotTest {
+
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void lotAppliqueLesOperationsValidesEtRendUnResultatParOperation() {
+        Compte a = Comptes.nouveau(compteRepository, 100);
+        Compte b = Comptes.nouveau(compteRepository, 0);
+
+        List<ResultatOperationDTO> resultats = compteService.traiterLot(List.of(
+            new OperationLotDTO("DEPOT", a.getId(), 50, "ESPECES"),
+            new OperationLotDTO("RETRAIT", a.getId(), 120, null),
+            new OperationLotDTO("RETRAIT", b.getId(), 10, null),
+            new OperationLotDTO("DEPOT", -1L, 10, "ESPECES"),
+            new OperationLotDTO("depot", b.getId(), 25, "CHEQUE")
+        ));
+
+        assertEquals(5, resultats.size());
+        assertTrue(resultats.get(0).isSucces());
+        assertEquals(150, resultats.get(0).getSoldeApres());
+        assertNotNull(resultats.get(0).getTransactionId());
+        assertTrue(resultats.get(1).isSucces());
+        assertEquals(30, resultats.get(1).getSoldeApres());
+        assertFalse(resultats.get(2).isSucces());
+        assertEquals("Solde insuffisant !", resultats.get(2).getMessage());
+        assertFalse(resultats.get(3).isSucces());
+        assertTrue(resultats.get(4).isSucces());
+
+        assertEquals(30, compteRepository.findById(a.getId()).orElseThrow().getSolde());
+        assertEquals(25, compteRepository.findById(b.getId()).orElseThrow().getSolde());
+        assertEquals(2, transactionRepository.findByCompteIdOrderByDateTransactionDesc(a.getId()).size());
+        assertEquals(1, transactionRepository.findByCompteIdOrderByDateTransactionDesc(b.getId()).size());
+    }
+}
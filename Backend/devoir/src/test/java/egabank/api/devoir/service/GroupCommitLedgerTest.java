@@ -0,0 +1,169 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Group commit : regroupement des écritures concurrentes, isolation des écritures refusées
+ * et abandonnées. Débit comparé au chemin direct : OperationsBenchmark (profil benchmarks).
+ */
+@SpringBootTest
+class GroupCommitLedgerTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PAR_THREAD = 20;
+
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private CompteLockStripes verrous;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private StatistiquesService statistiques;
+    @Autowired
+    private SoldeJournalierService soldesJournaliers;
+    @Autowired
+    private ReleveCache releveCache;
+
+    private CompteService service(GroupCommitLedger ledger) {
+        return new CompteService(compteRepository, transactionRepository, verrous, transactionManager, ledger, statistiques, soldesJournaliers, releveCache,
+            new SimpleMeterRegistry());
+    }
+
+    // Écrivains concurrents : moins de commits que d'écritures, aucune écriture perdue
+    @Test
+    void ecrituresConcurrentesRegroupees() throws Exception {
+        GroupCommitLedger ledger = new GroupCommitLedger(verrous, transactionManager, true, 20, 200, 10_000, 30_000);
+        ledger.demarrer();
+        try {
+            CompteService service = service(ledger);
+            List<Compte> comptes = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                comptes.add(Comptes.nouveau(compteRepository, 0));
+            }
+            long commitsAvant = ledger.getNombreCommits();
+
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Compte compte : comptes) {
+                    futures.add(pool.submit(() -> {
+                        for (int i = 0; i < OPERATIONS_PAR_THREAD; i++) {
+                            service.deposer(compte.getId(), 1, "ESPECES");
+                        }
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get(120, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            for (Compte compte : comptes) {
+                assertEquals(OPERATIONS_PAR_THREAD, compteRepository.findById(compte.getId()).orElseThrow().getSolde());
+            }
+            long commits = ledger.getNombreCommits() - commitsAvant;
+            long ecritures = (long) THREADS * OPERATIONS_PAR_THREAD;
+            assertTrue(commits < ecritures / 2, commits + " commits pour " + ecritures + " écritures");
+        } finally {
+            ledger.arreter();
+        }
+    }
+
+    // Virement refusé et virement valide soumis ensemble : même groupe, seul le refusé échoue
+    @Test
+    void ecritureRefuseeNAffectePasLeGroupe() throws Exception {
+        GroupCommitLedger ledger = new GroupCommitLedger(verrous, transactionManager, true, 200, 200, 10_000, 30_000);
+        ledger.demarrer();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            CompteService service = service(ledger);
+            Compte a = Comptes.nouveau(compteRepository, 10);
+            Compte b = Comptes.nouveau(compteRepository, 0);
+            long commitsAvant = ledger.getNombreCommits();
+
+            CountDownLatch depart = new CountDownLatch(1);
+            Future<?> refuse = pool.submit(() -> {
+                depart.await();
+                service.transferer(a.getId(), 5, -1L);
+                return null;
+            });
+            Future<?> valide = pool.submit(() -> {
+                depart.await();
+                service.transferer(a.getId(), 5, b.getId());
+                return null;
+            });
+            depart.countDown();
+
+            ExecutionException erreur = assertThrows(ExecutionException.class, () -> refuse.get(10, TimeUnit.SECONDS));
+            assertEquals("Compte destination introuvable", erreur.getCause().getMessage());
+            valide.get(10, TimeUnit.SECONDS);
+            assertEquals(1, ledger.getNombreCommits() - commitsAvant);
+            assertEquals(5, compteRepository.findById(a.getId()).orElseThrow().getSolde());
+            assertEquals(5, compteRepository.findById(b.getId()).orElseThrow().getSolde());
+        } finally {
+            pool.shutdownNow();
+            ledger.arreter();
+        }
+    }
+
+    // L'appelant abandonne une écriture encore en file : l'écrivain ne doit jamais l'appliquer
+    @Test
+    void ecritureAbandonneeJamaisAppliquee() throws Exception {
+        GroupCommitLedger ledger = new GroupCommitLedger(verrous, transactionManager, true, 0, 1, 10, 200);
+        ledger.demarrer();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch bloquee = new CountDownLatch(1);
+            CountDownLatch liberer = new CountDownLatch(1);
+            AtomicInteger appliquees = new AtomicInteger();
+            // La première occupe l'écrivain au-delà du délai : déjà prise, son appelant attend le commit
+            Future<?> premiere = pool.submit(() -> ledger.executer(List.of(1L), () -> {
+                bloquee.countDown();
+                try {
+                    liberer.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(bloquee.await(5, TimeUnit.SECONDS));
+
+            IllegalStateException erreur = assertThrows(IllegalStateException.class,
+                () -> ledger.executer(List.of(2L), appliquees::incrementAndGet));
+            assertTrue(erreur.getMessage().startsWith("Délai dépassé"));
+
+            liberer.countDown();
+            premiere.get(5, TimeUnit.SECONDS);
+            ledger.executer(List.of(3L), () -> { });
+            assertEquals(0, appliquees.get());
+        } finally {
+            pool.shutdownNow();
+            ledger.arreter();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.exception.IdempotenceConflitException;
+import egabank.api.devoir.exception.SoldeInsuffisantException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotenceStoreTest {
+
+    @Test
+    void requetesIdentiquesSimultaneesNExecutentQuUneFois() throws Exception {
+        IdempotenceStore store = new IdempotenceStore(60, 1000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch depart = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = pool.submit(() -> {
+                    depart.await();
+                    store.executer("client:cle-1", "deposer:1:{montant=10}", () -> {
+                        executions.incrementAndGet();
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                    return null;
+                });
+            }
+            depart.countDown();
+            for (Future<?> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void refusMetierRejoueSansReexecuter() {
+        IdempotenceStore store = new IdempotenceStore(60, 1000);
+        AtomicInteger executions = new AtomicInteger();
+        Runnable retrait = () -> {
+            executions.incrementAndGet();
+            throw new SoldeInsuffisantException("Solde insuffisant !");
+        };
+
+        SoldeInsuffisantException premiere = assertThrows(SoldeInsuffisantException.class,
+            () -> store.executer("c:k", "retirer:1", retrait));
+        SoldeInsuffisantException rejouee = assertThrows(SoldeInsuffisantException.class,
+            () -> store.executer("c:k", "retirer:1", retrait));
+        assertSame(premiere, rejouee);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void erreurTechniqueLibereLaCle() {
+        IdempotenceStore store = new IdempotenceStore(60, 1000);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> store.executer("c:k", "deposer:1", () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("base indisponible");
+        }));
+        store.executer("c:k", "deposer:1", executions::incrementAndGet);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void memeCleAutreRequeteEstUnConflit() {
+        IdempotenceStore store = new IdempotenceStore(60, 1000);
+        store.executer("c:k", "deposer:1:{montant=10}", () -> { });
+        assertThrows(IdempotenceConflitException.class,
+            () -> store.executer("c:k", "deposer:1:{montant=20}", () -> { }));
+    }
+
+    @Test
+    void entreesExpireesEtTailleBornee() throws Exception {
+        IdempotenceStore store = new IdempotenceStore(0, 1000);
+        AtomicInteger executions = new AtomicInteger();
+        store.executer("c:k", "deposer:1", executions::incrementAndGet);
+        Thread.sleep(2);
+        store.executer("c:k", "deposer:1", executions::incrementAndGet);
+        assertEquals(2, executions.get());
+
+        IdempotenceStore borne = new IdempotenceStore(60, 10);
+        for (int i = 0; i < 100; i++) {
+            borne.executer("c:" + i, "deposer:1", () -> { });
+        }
+        assertEquals(10, borne.taille());
+    }
+}
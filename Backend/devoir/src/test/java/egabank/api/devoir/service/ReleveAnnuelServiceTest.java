@@ -0,0 +1,168 @@
+package egabank.api.devoir.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReleveAnnuelServiceTest {
+
+    private static final long ID_BASE = 3_500_000_000L;
+    private static final LocalDate DEBUT = LocalDate.of(2024, 1, 15);
+    private static final LocalDate FIN = LocalDate.of(2024, 5, 10);
+
+    @Autowired
+    private ReleveAnnuelService releveAnnuelService;
+    @Autowired
+    private ReleveService releveService;
+    @Autowired
+    private ReleveRessources ressources;
+    @Autowired
+    private SoldeJournalierService soldesJournaliers;
+    @Autowired
+    private ReleveCache releveCache;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Compte compte;
+
+    // Opérations de décembre 2023 à mai 2024, aucune en mars
+    @BeforeEach
+    void preparer() {
+        compte = Comptes.nouveau(compteRepository, null, 0, LocalDate.of(2023, 12, 1));
+
+        List<Object[]> lot = new ArrayList<>();
+        LocalDateTime date = LocalDateTime.of(2023, 12, 20, 9, 0);
+        int solde = 0;
+        for (int i = 0; date.isBefore(LocalDateTime.of(2024, 5, 31, 0, 0)); i++, date = date.plusHours(13)) {
+            if (date.getMonthValue() == 3) {
+                continue;
+            }
+            boolean depot = i % 3 != 0;
+            int montant = depot ? 1_000 + i : 400 + i;
+            int apres = depot ? solde + montant : solde - montant;
+            lot.add(new Object[] {ID_BASE + i, compte.getId(), compte.getNumeroCompte(), Timestamp.valueOf(date),
+                depot ? "DEPOT" : "RETRAIT", montant, solde, apres});
+            solde = apres;
+        }
+        jdbcTemplate.batchUpdate("insert into transaction (id, compte_id, numero_compte, date_transaction, type, "
+            + "montant, montant_avant, montant_apres) values (?, ?, ?, ?, ?, ?, ?, ?)", lot);
+        jdbcTemplate.update("update compte set solde = ? where id = ?", solde, compte.getId());
+        soldesJournaliers.reconstruire(compte.getId());
+    }
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("delete from transaction where id >= ? and id < ?", ID_BASE, ID_BASE + 1_000_000);
+        soldesJournaliers.supprimerCompte(compte.getId());
+    }
+
+    @Test
+    void soldesChainesEtTotauxIdentiquesAuxRelevesUnitaires() {
+        List<ReleveDTO> mois = releveService.obtenirResumesMensuels(compte.getId(), DEBUT, FIN);
+
+        assertEquals(5, mois.size());
+        assertEquals(DEBUT, mois.get(0).getDateDebut());
+        assertEquals(LocalDate.of(2024, 1, 31), mois.get(0).getDateFin());
+        assertEquals(LocalDate.of(2024, 5, 1), mois.get(4).getDateDebut());
+        assertEquals(FIN, mois.get(4).getDateFin());
+        assertEquals(0, mois.get(2).getNombreTransactions());
+
+        int nombre = 0, credits = 0, debits = 0;
+        for (int i = 0; i < mois.size(); i++) {
+            ReleveDTO m = mois.get(i);
+            ReleveDTO unitaire = releveService.obtenirResumeReleve(compte.getId(), m.getDateDebut(), m.getDateFin());
+            assertEquals(unitaire.getNombreTransactions(), m.getNombreTransactions());
+            assertEquals(unitaire.getTotalCredits(), m.getTotalCredits());
+            assertEquals(unitaire.getTotalDebits(), m.getTotalDebits());
+            assertEquals(unitaire.getSoldeDebut(), m.getSoldeDebut());
+            assertEquals(unitaire.getSoldeFin(), m.getSoldeFin());
+            assertNull(m.getCompte().getTransactions());
+            assertEquals(m.getSoldeDebut() + m.getTotalCredits() - m.getTotalDebits(), (int) m.getSoldeFin());
+            if (i > 0) {
+                assertEquals(mois.get(i - 1).getSoldeFin(), m.getSoldeDebut());
+            }
+            nombre += m.getNombreTransactions();
+            credits += m.getTotalCredits();
+            debits += m.getTotalDebits();
+        }
+
+        ReleveDTO periode = releveService.obtenirResumeReleve(compte.getId(), DEBUT, FIN);
+        assertEquals(periode.getSoldeDebut(), mois.get(0).getSoldeDebut());
+        assertEquals(periode.getSoldeFin(), mois.get(4).getSoldeFin());
+        assertEquals((int) periode.getNombreTransactions(), nombre);
+        assertEquals((int) periode.getTotalCredits(), credits);
+        assertEquals((int) periode.getTotalDebits(), debits);
+    }
+
+    @Test
+    void archiveUnPdfParMoisDansLOrdre() throws Exception {
+        List<ReleveCache.Cle> cles = releveAnnuelService.cles(compte.getId(), DEBUT, FIN);
+        List<ReleveDTO> mois = releveService.obtenirResumesMensuels(compte.getId(), DEBUT, FIN);
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        releveAnnuelService.ecrireZip(mois, cles, sortie);
+
+        List<String> noms = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(sortie.toByteArray()))) {
+            ZipEntry entree;
+            while ((entree = zip.getNextEntry()) != null) {
+                ReleveDTO m = mois.get(noms.size());
+                noms.add(entree.getName());
+                assertEquals(ZipEntry.STORED, entree.getMethod());
+                byte[] pdf = zip.readAllBytes();
+                try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+                    String texte = PdfTextExtractor.getTextFromPage(document.getFirstPage());
+                    assertTrue(texte.contains(ressources.montant(m.getSoldeDebut(), (char) 0)), entree.getName());
+                    assertTrue(texte.contains(ressources.montant(m.getSoldeFin(), (char) 0)), entree.getName());
+                }
+            }
+        }
+        String prefixe = "releve_" + compte.getNumeroCompte() + "_";
+        assertEquals(List.of(prefixe + "2024-01.pdf", prefixe + "2024-02.pdf", prefixe + "2024-03.pdf",
+            prefixe + "2024-04.pdf", prefixe + "2024-05.pdf"), noms);
+    }
+
+    // Opération arrivée entre les clés et les résumés : le PDF reste sous l'ancienne clé, jamais sous la nouvelle
+    @Test
+    void moisRenduSousLaCleCalculeeAvantLesResumes() throws Exception {
+        List<ReleveCache.Cle> cles = releveAnnuelService.cles(compte.getId(), DEBUT, FIN);
+        assertEquals(5, cles.size());
+        jdbcTemplate.update("insert into transaction (id, compte_id, numero_compte, date_transaction, type, montant) "
+            + "values (?, ?, ?, ?, 'DEPOT', 500)", ID_BASE + 999_999, compte.getId(), compte.getNumeroCompte(),
+            Timestamp.valueOf(LocalDateTime.of(2024, 5, 5, 12, 0)));
+        List<ReleveDTO> mois = releveService.obtenirResumesMensuels(compte.getId(), DEBUT, FIN);
+
+        releveAnnuelService.ecrireZip(mois, cles, new ByteArrayOutputStream());
+
+        assertNotNull(releveCache.trouver(cles.get(4)));
+        assertNull(releveCache.trouver(releveCache.cle(compte.getId(), mois.get(4).getDateDebut(), FIN)));
+        assertNotNull(releveCache.trouver(releveCache.cle(compte.getId(), mois.get(0).getDateDebut(), mois.get(0).getDateFin())));
+    }
+}
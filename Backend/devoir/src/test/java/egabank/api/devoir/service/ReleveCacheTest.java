@@ -0,0 +1,199 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReleveCacheTest {
+
+    @Autowired
+    private ReleveCache releveCache;
+    @Autowired
+    private ReleveService releveService;
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private ClientService clientService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    Path repertoire;
+
+    private byte[] generer(ReleveCache cache, ReleveCache.Cle cle, Long compteId, LocalDate debut, LocalDate fin)
+            throws IOException {
+        ReleveDTO releve = releveService.obtenirResumeReleve(compteId, debut, fin);
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        cache.generer(cle, sortie, s -> releveService.ecrireRelevePdf(releve, s));
+        return sortie.toByteArray();
+    }
+
+    @Test
+    void releveGenereUneFoisPuisServiDepuisLeCache() throws IOException {
+        Compte compte = Comptes.nouveau(compteRepository, 1000);
+        compteService.deposer(compte.getId(), 50, "ESPECES");
+        LocalDate debut = LocalDate.now().minusDays(30);
+        LocalDate fin = LocalDate.now();
+
+        ReleveCache.Cle cle = releveCache.cle(compte.getId(), debut, fin);
+        assertNull(releveCache.trouver(cle));
+        byte[] envoye = generer(releveCache, cle, compte.getId(), debut, fin);
+
+        ReleveCache.PdfEnCache enCache = releveCache.trouver(releveCache.cle(compte.getId(), debut, fin));
+        assertNotNull(enCache);
+        assertArrayEquals(envoye, enCache.getContenu());
+        assertEquals(envoye.length, enCache.getTaille());
+    }
+
+    @Test
+    void ecritureDansLaPeriodeInvalideLeReleve() throws IOException {
+        Compte compte = Comptes.nouveau(compteRepository, 1000);
+        compteService.deposer(compte.getId(), 50, "ESPECES");
+        LocalDate aujourdhui = LocalDate.now();
+        LocalDate hier = aujourdhui.minusDays(1);
+
+        ReleveCache.Cle courant = releveCache.cle(compte.getId(), aujourdhui.minusDays(30), aujourdhui);
+        generer(releveCache, courant, compte.getId(), aujourdhui.minusDays(30), aujourdhui);
+        ReleveCache.Cle passe = releveCache.cle(compte.getId(), hier.minusDays(30), hier);
+        generer(releveCache, passe, compte.getId(), hier.minusDays(30), hier);
+
+        compteService.retirer(compte.getId(), 20);
+
+        // La période courante a une nouvelle dernière transaction, l'ancienne entrée a été supprimée
+        assertNotEquals(courant, releveCache.cle(compte.getId(), aujourdhui.minusDays(30), aujourdhui));
+        assertNull(releveCache.trouver(courant));
+        // Une période close n'est pas concernée
+        assertEquals(passe, releveCache.cle(compte.getId(), hier.minusDays(30), hier));
+        assertNotNull(releveCache.trouver(passe));
+    }
+
+    // Le PDF montre le type du compte et le nom et l'adresse du titulaire, absents de la clé
+    @Test
+    void modificationDuCompteOuDuTitulaireInvalideLeReleve() throws IOException {
+        Client client = clientService.saveClient(new Client(null, "AGBEKO", "Yao", LocalDate.of(1990, 4, 4), "M",
+            "Lomé", "93000000", "TOGOLAISE", null, null));
+        Compte compte = Comptes.nouveau(compteRepository, 1000);
+        compte.setClient(client);
+        compte = compteRepository.save(compte);
+        compteService.deposer(compte.getId(), 50, "ESPECES");
+        LocalDate debut = LocalDate.now().minusDays(30);
+        LocalDate fin = LocalDate.now();
+
+        ReleveCache.Cle cle = releveCache.cle(compte.getId(), debut, fin);
+        generer(releveCache, cle, compte.getId(), debut, fin);
+        Compte modifie = new Compte();
+        modifie.setTypeCompte("EPARGNE");
+        compteService.updateCompte(compte.getId(), modifie);
+        assertEquals(cle, releveCache.cle(compte.getId(), debut, fin));
+        assertNull(releveCache.trouver(cle));
+
+        generer(releveCache, cle, compte.getId(), debut, fin);
+        client.setAdresse("Kara");
+        clientService.saveClient(client);
+        assertNull(releveCache.trouver(cle));
+    }
+
+    // Comptes supprimés en cascade avec leur client : leurs relevés ne restent pas sur disque
+    @Test
+    void suppressionDuClientInvalideLesRelevesDeSesComptes() throws IOException {
+        Client client = clientService.saveClient(new Client(null, "AMEGAN", "Kossi", LocalDate.of(1988, 2, 2), "M",
+            "Atakpamé", "97000000", "TOGOLAISE", null, null));
+        Compte compte = Comptes.nouveau(compteRepository, client, 1000);
+        compteService.deposer(compte.getId(), 50, "ESPECES");
+        LocalDate debut = LocalDate.now().minusDays(30);
+        LocalDate fin = LocalDate.now();
+        ReleveCache.Cle cle = releveCache.cle(compte.getId(), debut, fin);
+        generer(releveCache, cle, compte.getId(), debut, fin);
+        assertNotNull(releveCache.trouver(cle));
+
+        // Session ouverte comme pendant une requête HTTP (open-in-view) : comptes du client chargés à la demande
+        Long clientId = client.getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> clientService.deleteClient(clientId));
+
+        assertNull(releveCache.trouver(cle));
+    }
+
+    @Test
+    void disqueBorneEvinceLeMoinsRecemmentUtilise() throws IOException {
+        // 1 Mo sur disque, rien en mémoire : les succès viennent du fichier
+        ReleveCache cache = new ReleveCache(transactionRepository, true, repertoire.toString(), 1, 0, 0);
+        LocalDate jour = LocalDate.of(2024, 1, 31);
+        ReleveCache.Cle a = new ReleveCache.Cle(1L, jour, jour, 1);
+        ReleveCache.Cle b = new ReleveCache.Cle(1L, jour, jour, 2);
+        ReleveCache.Cle c = new ReleveCache.Cle(1L, jour, jour, 3);
+        byte[] contenu = new byte[400 * 1024];
+
+        cache.generer(a, OutputStream.nullOutputStream(), s -> ecrire(s, contenu));
+        cache.generer(b, OutputStream.nullOutputStream(), s -> ecrire(s, contenu));
+        assertNotNull(cache.trouver(a));
+        cache.generer(c, OutputStream.nullOutputStream(), s -> ecrire(s, contenu));
+
+        assertNull(cache.trouver(b));
+        ReleveCache.PdfEnCache fichierA = cache.trouver(a);
+        assertNotNull(fichierA);
+        assertNull(fichierA.getContenu());
+        assertArrayEquals(contenu, Files.readAllBytes(fichierA.getFichier()));
+        assertEquals(2, cache.nombreEntrees());
+        assertTrue(cache.octetsDisque() <= 1 << 20);
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            assertEquals(2, fichiers.count());
+        }
+    }
+
+    @Test
+    void renduInterrompuNePublieRien() throws IOException {
+        ReleveCache cache = new ReleveCache(transactionRepository, true, repertoire.toString(), 1, 1, 1024);
+        LocalDate jour = LocalDate.of(2024, 1, 31);
+        ReleveCache.Cle cle = new ReleveCache.Cle(1L, jour, jour, 1);
+
+        assertThrows(IllegalStateException.class, () -> cache.generer(cle, OutputStream.nullOutputStream(), s -> {
+            ecrire(s, new byte[1000]);
+            throw new IllegalStateException("client parti");
+        }));
+
+        assertNull(cache.trouver(cle));
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            assertFalse(fichiers.findAny().isPresent());
+        }
+    }
+
+    private static void ecrire(OutputStream sortie, byte[] contenu) {
+        try {
+            sortie.write(contenu);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
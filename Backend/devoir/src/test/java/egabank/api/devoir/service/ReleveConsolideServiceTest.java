@@ -0,0 +1,181 @@
+package egabank.api.devoir.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import egabank.api.devoir.dto.CompteConsolideDTO;
+import egabank.api.devoir.dto.LigneConsolideeDTO;
+import egabank.api.devoir.dto.ReleveConsolideDTO;
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.ClientRepository;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReleveConsolideServiceTest {
+
+    private static final long ID_BASE = 3_700_000_000L;
+    private static final LocalDate DEBUT = LocalDate.of(2024, 2, 1);
+    private static final LocalDate FIN = LocalDate.of(2024, 2, 29);
+
+    @Autowired
+    private ReleveConsolideService releveConsolideService;
+    @Autowired
+    private ReleveService releveService;
+    @Autowired
+    private SoldeJournalierService soldesJournaliers;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Client client;
+    private final List<Compte> comptes = new ArrayList<>();
+
+    // Trois comptes aux rythmes différents (dont des opérations à la même minute), de janvier à mars 2024
+    @BeforeEach
+    void preparer() {
+        client = new Client();
+        client.setNom("KAO");
+        client.setPrenom("Alexandre");
+        client.setDnaissance(LocalDate.of(1990, 1, 1));
+        client.setSexe("M");
+        client.setAdresse("Lomé");
+        client.setTel("90000000");
+        client.setNationalite("Togolaise");
+        client = clientRepository.save(client);
+
+        int[] pasMinutes = {37, 90, 37};
+        long id = ID_BASE;
+        for (int c = 0; c < pasMinutes.length; c++) {
+            Compte compte = Comptes.nouveau(compteRepository, client, 0, LocalDate.of(2023, 12, 1));
+            if (c == 1) {
+                compte.setTypeCompte("EPARGNE");
+                compte = compteRepository.save(compte);
+            }
+            comptes.add(compte);
+
+            List<Object[]> lot = new ArrayList<>();
+            int solde = 5_000 * (c + 1);
+            for (LocalDateTime date = LocalDateTime.of(2024, 1, 20, 8, 0); date.isBefore(LocalDateTime.of(2024, 3, 10, 0, 0));
+                    date = date.plusMinutes(pasMinutes[c])) {
+                boolean depot = id % 3 != 0;
+                int montant = depot ? 150 + (int) (id % 50) : 100 + (int) (id % 30);
+                int apres = depot ? solde + montant : solde - montant;
+                lot.add(new Object[] {id++, compte.getId(), compte.getNumeroCompte(), Timestamp.valueOf(date),
+                    depot ? "DEPOT" : "RETRAIT", montant, solde, apres});
+                solde = apres;
+            }
+            jdbcTemplate.batchUpdate("insert into transaction (id, compte_id, numero_compte, date_transaction, type, "
+                + "montant, montant_avant, montant_apres) values (?, ?, ?, ?, ?, ?, ?, ?)", lot);
+            jdbcTemplate.update("update compte set solde = ? where id = ?", solde, compte.getId());
+            soldesJournaliers.reconstruire(compte.getId());
+        }
+    }
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("delete from transaction where id >= ? and id < ?", ID_BASE, ID_BASE + 1_000_000);
+        for (Compte compte : comptes) {
+            soldesJournaliers.supprimerCompte(compte.getId());
+        }
+    }
+
+    @Test
+    void fusionChronologiqueAvecSoldesCourants() {
+        ReleveConsolideDTO releve = releveConsolideService.obtenirResume(client.getId(), DEBUT, FIN);
+        assertEquals(3, releve.getComptes().size());
+
+        Map<Long, Integer> nombreParCompte = new HashMap<>();
+        Map<Long, Integer> soldeParCompte = new HashMap<>();
+        LigneConsolideeDTO precedente = null;
+        long soldeTotal = releve.getSoldeDebut();
+        int n = 0;
+        Iterator<LigneConsolideeDTO> lignes = releveConsolideService.lignes(releve);
+        while (lignes.hasNext()) {
+            LigneConsolideeDTO ligne = lignes.next();
+            if (precedente != null) {
+                int ordre = precedente.getDateTransaction().compareTo(ligne.getDateTransaction());
+                assertTrue(ordre < 0 || (ordre == 0 && precedente.getId() < ligne.getId()));
+            }
+            assertTrue(!ligne.getDateTransaction().toLocalDate().isBefore(DEBUT)
+                && !ligne.getDateTransaction().toLocalDate().isAfter(FIN));
+            boolean credit = ligne.getType().equals("DEPOT");
+            soldeTotal += credit ? ligne.getMontant() : -ligne.getMontant();
+            assertEquals(soldeTotal, ligne.getSoldeTotal());
+            nombreParCompte.merge(ligne.getCompteId(), 1, Integer::sum);
+            soldeParCompte.put(ligne.getCompteId(), ligne.getSoldeCompte());
+            precedente = ligne;
+            n++;
+        }
+
+        // Plusieurs pages de lecture par compte
+        assertTrue(n > 3 * ReleveConsolideService.TAILLE_PAGE, "opérations : " + n);
+        assertEquals((int) releve.getNombreTransactions(), n);
+        assertEquals(releve.getSoldeFin(), soldeTotal);
+        long soldeFin = 0;
+        for (CompteConsolideDTO compte : releve.getComptes()) {
+            assertEquals(compte.getNombreTransactions(), nombreParCompte.get(compte.getCompteId()));
+            assertEquals(compte.getSoldeFin(), soldeParCompte.get(compte.getCompteId()));
+            assertEquals(releveService.obtenirResumeReleve(compte.getCompteId(), DEBUT, FIN).getSoldeFin(),
+                compte.getSoldeFin());
+            soldeFin += compte.getSoldeFin();
+        }
+        assertEquals(releve.getSoldeFin(), soldeFin);
+    }
+
+    @Test
+    void jsonEtPdfEcritsAuFilDeLaFusion() throws Exception {
+        ReleveConsolideDTO releve = releveConsolideService.obtenirResume(client.getId(), DEBUT, FIN);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        releveConsolideService.ecrireJson(releve, json);
+        JsonNode racine = objectMapper.readTree(json.toByteArray());
+        assertEquals(3, racine.get("releve").get("comptes").size());
+        assertEquals((int) releve.getNombreTransactions(), racine.get("transactions").size());
+        assertEquals((long) releve.getSoldeFin(),
+            racine.get("transactions").get(releve.getNombreTransactions() - 1).get("soldeTotal").asLong());
+
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        releveService.ecrireReleveConsolidePdf(releve, releveConsolideService.lignes(releve), sortie);
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(sortie.toByteArray())))) {
+            String premiere = PdfTextExtractor.getTextFromPage(pdf.getFirstPage());
+            assertTrue(premiere.contains("RELEVÉ CONSOLIDÉ"));
+            for (Compte compte : comptes) {
+                assertTrue(premiere.contains(compte.getNumeroCompte()));
+            }
+            StringBuilder texte = new StringBuilder();
+            for (int p = 1; p <= pdf.getNumberOfPages(); p++) {
+                texte.append(PdfTextExtractor.getTextFromPage(pdf.getPage(p)));
+            }
+            assertEquals(releve.getNombreTransactions() + 1, texte.toString().split("#37").length);
+        }
+    }
+}
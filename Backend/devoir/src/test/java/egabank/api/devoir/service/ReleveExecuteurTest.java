@@ -0,0 +1,90 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.ExecuteurReleveDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReleveExecuteurTest {
+
+    @Test
+    void placesBorneesRefusentAuLieuDAttendre() throws Exception {
+        ReleveExecuteur executeur = new ReleveExecuteur(1, 1);
+        CountDownLatch enCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        try {
+            assertTrue(executeur.reserver());
+            Future<String> premier = executeur.executeur().submit(() -> {
+                enCours.countDown();
+                liberer.await();
+                return Thread.currentThread().getName();
+            });
+            assertTrue(enCours.await(5, TimeUnit.SECONDS));
+            assertTrue(executeur.reserver());
+            Future<String> second = executeur.executeur().submit(() -> "second");
+
+            // Le thread est occupé et la file (1 place) pleine
+            assertFalse(executeur.reserver());
+            ExecuteurReleveDTO etat = executeur.etat();
+            assertEquals(1, etat.getActifs());
+            assertEquals(1, etat.getEnAttente());
+            assertEquals(1, etat.getRejetes());
+            assertTrue(executeur.secondesAvantNouvelEssai() >= 1);
+
+            Thread.sleep(20);
+            liberer.countDown();
+            assertEquals("releve-rendu-1", premier.get(5, TimeUnit.SECONDS));
+            assertEquals("second", second.get(5, TimeUnit.SECONDS));
+
+            // Places rendues en fin de tâche
+            long limite = System.currentTimeMillis() + 5_000;
+            while (executeur.etat().getTermines() < 2 && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+            etat = executeur.etat();
+            assertEquals(2, etat.getSoumis());
+            assertEquals(2, etat.getTermines());
+            assertEquals(0, etat.getEnAttente());
+            assertEquals(1, etat.getAttenteMax());
+            assertTrue(etat.getDureeMaxMs() >= 20);
+            assertTrue(etat.getAttenteMoyenneMs() > 0);
+            assertTrue(executeur.reserver());
+            assertTrue(executeur.reserver());
+        } finally {
+            executeur.arreter();
+        }
+    }
+
+    @Test
+    void tacheAnnuleeAvantDeDemarrerRendSaPlace() throws Exception {
+        ReleveExecuteur executeur = new ReleveExecuteur(1, 1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        try {
+            assertTrue(executeur.reserver());
+            executeur.executeur().submit(() -> {
+                liberer.await();
+                return null;
+            });
+            assertTrue(executeur.reserver());
+            // Comme à l'expiration d'une requête asynchrone : la tâche en file est annulée
+            executeur.executeur().submit(() -> "jamais").cancel(true);
+            assertFalse(executeur.reserver());
+
+            liberer.countDown();
+            long limite = System.currentTimeMillis() + 5_000;
+            while (executeur.etat().getTermines() < 2 && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+            assertTrue(executeur.reserver());
+            assertTrue(executeur.reserver());
+        } finally {
+            executeur.arreter();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.LotReleveDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReleveLotServiceTest {
+
+    private static final YearMonth MOIS = YearMonth.now().minusMonths(1);
+
+    @Autowired
+    private ReleveService releveService;
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private CompteRepository compteRepository;
+
+    @TempDir
+    Path repertoire;
+
+    private ReleveLotService lots;
+    private final List<Compte> comptes = new ArrayList<>();
+
+    @BeforeEach
+    void preparer() {
+        for (int i = 0; i < 10; i++) {
+            comptes.add(Comptes.nouveau(compteRepository, 1000));
+        }
+        compteService.deposer(comptes.get(0).getId(), 250, "ESPECES");
+        // Petites tranches et deux workers : plusieurs points de reprise même avec peu de comptes
+        lots = new ReleveLotService(releveService, compteRepository, repertoire.toString(), 2, 3, true);
+    }
+
+    @AfterEach
+    void arreter() {
+        lots.arreter();
+    }
+
+    private LotReleveDTO attendreFin() throws InterruptedException {
+        long limite = System.currentTimeMillis() + 120_000;
+        LotReleveDTO etat = lots.etat(MOIS);
+        while (ReleveLotService.EN_COURS.equals(etat.getEtat())) {
+            assertTrue(System.currentTimeMillis() < limite, "lot non terminé");
+            Thread.sleep(50);
+            etat = lots.etat(MOIS);
+        }
+        return etat;
+    }
+
+    private Path fichier(Compte compte) {
+        return repertoire.resolve(MOIS.toString()).resolve("releve_" + compte.getId() + "_" + MOIS + ".pdf");
+    }
+
+    private long nombrePdf() throws IOException {
+        try (Stream<Path> fichiers = Files.list(repertoire.resolve(MOIS.toString()))) {
+            return fichiers.filter(f -> f.toString().endsWith(".pdf")).count();
+        }
+    }
+
+    @Test
+    void genereUnReleveParCompte() throws Exception {
+        long total = compteRepository.count();
+
+        lots.lancer(MOIS);
+        LotReleveDTO etat = attendreFin();
+
+        assertEquals(ReleveLotService.TERMINE, etat.getEtat());
+        assertEquals(total, etat.getTotalComptes());
+        assertEquals(total, etat.getGeneres());
+        assertEquals(0, etat.getErreurs());
+        assertEquals(100.0, etat.getPourcentage());
+        assertEquals(total, nombrePdf());
+        for (Compte compte : comptes) {
+            byte[] debut = new byte[5];
+            try (InputStream in = Files.newInputStream(fichier(compte))) {
+                in.readNBytes(debut, 0, 5);
+            }
+            assertEquals("%PDF-", new String(debut));
+        }
+        assertEquals(1, lots.lister().size());
+    }
+
+    @Test
+    void repriseApresCrashRepartDuDernierPointDeReprise() throws Exception {
+        lots.lancer(MOIS);
+        attendreFin();
+        long total = compteRepository.count();
+
+        // Crash simulé : état resté EN_COURS après le 5e compte, relevés manquants de part et d'autre
+        Compte avant = comptes.get(2);
+        Compte apres = comptes.get(8);
+        Files.delete(fichier(avant));
+        Files.delete(fichier(apres));
+        Files.writeString(fichier(apres).resolveSibling("releve_" + apres.getId() + "_" + MOIS + ".pdf.tmp"), "partiel");
+        Path etatLot = repertoire.resolve(MOIS.toString()).resolve("lot.properties");
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(etatLot)) {
+            p.load(in);
+        }
+        p.setProperty("etat", ReleveLotService.EN_COURS);
+        p.setProperty("curseur", comptes.get(4).getId().toString());
+        p.remove("fin");
+        try (OutputStream out = Files.newOutputStream(etatLot)) {
+            p.store(out, null);
+        }
+
+        // Redémarrage : nouvelle instance, reprise automatique
+        lots.arreter();
+        lots = new ReleveLotService(releveService, compteRepository, repertoire.toString(), 2, 3, true);
+        lots.reprendre();
+        LotReleveDTO etat = attendreFin();
+
+        assertEquals(ReleveLotService.TERMINE, etat.getEtat());
+        assertTrue(Files.exists(fichier(apres)));
+        // Tranches déjà validées avant le crash : non reparcourues
+        assertFalse(Files.exists(fichier(avant)));
+        assertEquals(total - 1, nombrePdf());
+        try (Stream<Path> fichiers = Files.list(repertoire.resolve(MOIS.toString()))) {
+            assertFalse(fichiers.anyMatch(f -> f.toString().endsWith(".pdf.tmp")));
+        }
+
+        // Relancer un lot terminé ne génère que ce qui manque
+        lots.lancer(MOIS);
+        etat = attendreFin();
+        assertTrue(Files.exists(fichier(avant)));
+        assertEquals(1, etat.getGeneres());
+        assertEquals(total - 1, etat.getDejaPresents());
+        assertEquals(total, nombrePdf());
+    }
+
+    @Test
+    void moisNonClosOuLotDejaEnCoursRefuses() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> lots.lancer(YearMonth.now().plusMonths(1)));
+        assertThrows(IllegalArgumentException.class, () -> lots.lancer(YearMonth.now()));
+        lots.lancer(MOIS);
+        assertThrows(IllegalStateException.class, () -> lots.lancer(MOIS.minusMonths(1)));
+        attendreFin();
+    }
+}
@@ -0,0 +1,211 @@
+package egabank.api.devoir.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Relevés : résumé SQL et PDF écrit au fil de l'eau.
+ * Volume du relevé PDF (5 000 transactions, dix lots de rendu) réglable : -Dreleve.transactions=200000
+ */
+@SpringBootTest
+class ReleveServiceTest {
+
+    private static final long ID_BASE = 3_000_000_000L;
+    private static final int TRANSACTIONS = Integer.getInteger("releve.transactions", 5_000);
+
+    @Autowired
+    private ReleveService releveService;
+    @Autowired
+    private ReleveRessources ressources;
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private SoldeJournalierService soldesJournaliers;
+
+    @Test
+    void resumeIdentiqueAuReleveCompletSansTransactions() {
+        Compte compte = Comptes.nouveau(compteRepository, 500);
+        Compte autre = Comptes.nouveau(compteRepository, 0);
+        compteService.deposer(compte.getId(), 200, "ESPECES");
+        compteService.retirer(compte.getId(), 50);
+        compteService.transferer(compte.getId(), 100, autre.getId());
+        compteService.transferer(autre.getId(), 30, compte.getId());
+
+        LocalDate aujourdhui = LocalDate.now();
+        ReleveDTO complet = releveService.obtenirDonneesReleve(compte.getId(), aujourdhui, aujourdhui);
+        ReleveDTO resume = releveService.obtenirResumeReleve(compte.getId(), aujourdhui, aujourdhui);
+
+        assertNull(resume.getTransactions());
+        assertNull(resume.getCompte().getTransactions());
+        assertEquals(4, resume.getNombreTransactions());
+        assertEquals(230, resume.getTotalCredits());
+        assertEquals(150, resume.getTotalDebits());
+        assertEquals(500, resume.getSoldeDebut());
+        assertEquals(580, resume.getSoldeFin());
+        assertEquals(complet.getNombreTransactions(), resume.getNombreTransactions());
+        assertEquals(complet.getTotalCredits(), resume.getTotalCredits());
+        assertEquals(complet.getTotalDebits(), resume.getTotalDebits());
+        assertEquals(complet.getSoldeDebut(), resume.getSoldeDebut());
+        assertEquals(complet.getSoldeFin(), resume.getSoldeFin());
+
+        ReleveDTO vide = releveService.obtenirResumeReleve(compte.getId(), aujourdhui.minusDays(3), aujourdhui.minusDays(1));
+        assertEquals(0, vide.getNombreTransactions());
+        assertEquals(0, vide.getTotalCredits());
+        assertEquals(500, vide.getSoldeFin());
+    }
+
+    // n transactions d'une minute d'écart à partir du 1er janvier 2024, dépôts et retraits alternés
+    private Compte compteAvecHistorique(int n) {
+        Compte compte = Comptes.nouveau(compteRepository, 0);
+        List<Object[]> lot = new ArrayList<>(10_000);
+        LocalDateTime origine = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int solde = 0;
+        for (int i = 0; i < n; i++) {
+            boolean depot = i % 2 == 0;
+            int apres = depot ? solde + 100 : solde - 40;
+            lot.add(new Object[] {ID_BASE + i, compte.getId(), compte.getNumeroCompte(),
+                Timestamp.valueOf(origine.plusMinutes(i)), depot ? "DEPOT" : "RETRAIT", depot ? 100 : 40, solde, apres});
+            solde = apres;
+            if (lot.size() == 10_000 || i == n - 1) {
+                jdbcTemplate.batchUpdate("insert into transaction (id, compte_id, numero_compte, date_transaction, type, "
+                    + "montant, montant_avant, montant_apres) values (?, ?, ?, ?, ?, ?, ?, ?)", lot);
+                lot.clear();
+            }
+        }
+        jdbcTemplate.update("update compte set solde = ? where id = ?", solde, compte.getId());
+        return compte;
+    }
+
+    private void nettoyer(int n) {
+        for (long debut = ID_BASE; debut < ID_BASE + n; debut += 50_000) {
+            jdbcTemplate.update("delete from transaction where id >= ? and id < ?", debut, debut + 50_000);
+        }
+    }
+
+    @Test
+    void montantFormateCommeStringFormat() {
+        for (long m : new long[] {0, 7, 999, 1_000, 12_345, 1_000_000, Integer.MAX_VALUE, -1_500}) {
+            assertEquals(String.format("%,.0f F CFA", (double) m), ressources.montant(m, (char) 0));
+            assertEquals(String.format("+%,.0f F CFA", (double) m), ressources.montant(m, '+'));
+        }
+    }
+
+    @Test
+    void relevePdfSurPlusieursPagesDeLecture() throws Exception {
+        int n = 1_234;
+        Compte compte = compteAvecHistorique(n);
+        try {
+            ReleveDTO resume = releveService.obtenirResumeReleve(compte.getId(),
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+            ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+            releveService.ecrireRelevePdf(resume, sortie);
+
+            try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(sortie.toByteArray())))) {
+                StringBuilder texte = new StringBuilder();
+                for (int p = 1; p <= pdf.getNumberOfPages(); p++) {
+                    texte.append(PdfTextExtractor.getTextFromPage(pdf.getPage(p)));
+                }
+                // Toutes les références ont le même nombre de chiffres : pas de préfixe commun
+                int lignes = texte.toString().split("#300000", -1).length - 1;
+                assertEquals(n, lignes);
+                // Ordre décroissant : la plus récente en premier, la plus ancienne en dernier
+                assertTrue(texte.indexOf("#" + (ID_BASE + n - 1)) < texte.indexOf("#" + ID_BASE));
+                // Logo recopié depuis le gabarit préparé au démarrage
+                assertFalse(pdf.getFirstPage().getResources().getResourceNames(PdfName.XObject).isEmpty());
+            }
+        } finally {
+            nettoyer(n);
+        }
+    }
+
+    @Test
+    void relevePdfVolumineuxEcritAuFilDeLEau() {
+        Compte compte = compteAvecHistorique(TRANSACTIONS);
+        try {
+            ReleveDTO resume = releveService.obtenirResumeReleve(compte.getId(),
+                LocalDate.of(2023, 12, 1), LocalDate.of(2030, 1, 1));
+            assertEquals(TRANSACTIONS, resume.getNombreTransactions());
+
+            CompteurSortie sortie = new CompteurSortie();
+            List<Long> octetsParLot = new ArrayList<>();
+            ReleveService suivi = new ReleveService(compteRepository, depotObserve(sortie, octetsParLot),
+                soldesJournaliers, ressources, new SimpleMeterRegistry());
+            suivi.ecrireRelevePdf(resume, sortie);
+
+            // Écrit au fil du rendu : quand le dernier lot est lu, l'essentiel du document est déjà parti
+            assertEquals((TRANSACTIONS + 499) / 500, octetsParLot.size());
+            long avantDernierLot = octetsParLot.get(octetsParLot.size() - 1);
+            assertTrue(avantDernierLot > sortie.octets / 2,
+                "octets écrits avant le dernier lot : " + avantDernierLot + " sur " + sortie.octets);
+        } finally {
+            nettoyer(TRANSACTIONS);
+        }
+    }
+
+    // Dépôt réel, octets déjà écrits relevés à chaque lot non vide de lignes lu par le rendu
+    private TransactionRepository depotObserve(CompteurSortie sortie, List<Long> octetsParLot) {
+        return (TransactionRepository) Proxy.newProxyInstance(TransactionRepository.class.getClassLoader(),
+            new Class<?>[] {TransactionRepository.class}, (proxy, methode, args) -> {
+                long avant = sortie.octets;
+                Object resultat;
+                try {
+                    resultat = methode.invoke(transactionRepository, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (methode.getName().equals("findLignesReleveAvant") && !((List<?>) resultat).isEmpty()) {
+                    octetsParLot.add(avant);
+                }
+                return resultat;
+            });
+    }
+
+    // Ne garde pas le contenu : compte les octets
+    private static class CompteurSortie extends OutputStream {
+        long octets;
+
+        @Override
+        public void write(int b) {
+            octets++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            octets += len;
+        }
+    }
+}
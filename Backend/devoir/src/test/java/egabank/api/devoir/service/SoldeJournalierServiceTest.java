@@ -0,0 +1,111 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.ReleveDTO;
+import egabank.api.devoir.entity.Client;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.entity.SoldeJournalier;
+import egabank.api.devoir.entity.Transaction;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import egabank.api.devoir.repository.SoldeJournalierRepository;
+import egabank.api.devoir.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SoldeJournalierServiceTest {
+
+    private static final LocalDate J1 = LocalDate.of(2025, 3, 10);
+    private static final LocalDate J3 = LocalDate.of(2025, 3, 12);
+
+    @Autowired
+    private SoldeJournalierService soldesJournaliers;
+    @Autowired
+    private SoldeJournalierRepository soldeJournalierRepository;
+    @Autowired
+    private ReleveService releveService;
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private ClientService clientService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private CompteRepository compteRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private void historique(Compte compte, LocalDateTime date, String type, int avant, int apres) {
+        Transaction t = new Transaction();
+        t.setDateTransaction(date);
+        t.setType(type);
+        t.setMontantAvant(avant);
+        t.setMontantApres(apres);
+        t.setMontant(Math.abs(apres - avant));
+        t.setCompte(compte);
+        t.setNumeroCompte(compte.getNumeroCompte());
+        transactionRepository.save(t);
+    }
+
+    private void verifierReleve(Long compteId, LocalDate debut, LocalDate fin, int soldeDebut, int soldeFin) {
+        ReleveDTO releve = releveService.obtenirDonneesReleve(compteId, debut, fin);
+        assertEquals(soldeDebut, releve.getSoldeDebut(), "solde de début " + debut + ".." + fin);
+        assertEquals(soldeFin, releve.getSoldeFin(), "solde de fin " + debut + ".." + fin);
+        assertEquals(soldeFin - soldeDebut, releve.getTotalCredits() - releve.getTotalDebits());
+    }
+
+    @Test
+    void soldesDeReleveJustesMemeAvecDesOperationsPosterieures() {
+        Compte compte = Comptes.nouveau(compteRepository, null, 1250, J1);
+        Long id = compte.getId();
+
+        historique(compte, J1.atTime(9, 0), "DEPOT", 1000, 1100);
+        historique(compte, J1.atTime(17, 30), "RETRAIT", 1100, 1050);
+        historique(compte, J3.atTime(23, 59, 59, 500_000_000), "DEPOT", 1050, 1250);
+        assertEquals(2, soldesJournaliers.reconstruire(id));
+
+        verifierReleve(id, J1.minusDays(9), J1.minusDays(1), 1000, 1000);
+        verifierReleve(id, J1, J1, 1000, 1050);
+        verifierReleve(id, J1.plusDays(1), J1.plusDays(1), 1050, 1050);
+        verifierReleve(id, J1, J3, 1000, 1250);
+
+        // Écriture du jour : les relevés passés ne bougent pas, le jour courant est suivi
+        compteService.deposer(id, 10, "ESPECES");
+        compteService.retirer(id, 5);
+        LocalDate aujourdhui = LocalDate.now();
+        verifierReleve(id, J3, J3, 1050, 1250);
+        verifierReleve(id, aujourdhui, aujourdhui, 1250, 1255);
+
+        SoldeJournalier suivi = soldeJournalierRepository.findByCompteIdAndJour(id, aujourdhui).orElseThrow();
+        soldesJournaliers.reconstruire(id);
+        SoldeJournalier reconstruit = soldeJournalierRepository.findByCompteIdAndJour(id, aujourdhui).orElseThrow();
+        assertEquals(suivi.getSoldeDebut(), reconstruit.getSoldeDebut());
+        assertEquals(suivi.getSoldeFin(), reconstruit.getSoldeFin());
+    }
+
+    // Les comptes supprimés en cascade avec leur client ne laissent pas de soldes journaliers
+    @Test
+    void suppressionDuClientSupprimeLesSoldesDeSesComptes() {
+        Client client = clientService.saveClient(new Client(null, "KODJO", "Ama", LocalDate.of(1992, 6, 6), "F",
+            "Sokodé", "90000000", "TOGOLAISE", null, null));
+        Compte compte = Comptes.nouveau(compteRepository, client, 0);
+        compteService.deposer(compte.getId(), 100, "ESPECES");
+        assertTrue(soldeJournalierRepository.findByCompteIdAndJour(compte.getId(), LocalDate.now()).isPresent());
+
+        // Session ouverte comme pendant une requête HTTP (open-in-view) : comptes du client chargés à la demande
+        Long clientId = client.getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> clientService.deleteClient(clientId));
+
+        assertTrue(compteRepository.findById(compte.getId()).isEmpty());
+        assertTrue(soldeJournalierRepository.findByCompteIdAndJour(compte.getId(), LocalDate.now()).isEmpty());
+    }
+}
@@ -0,0 +1,77 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.OperationLotDTO;
+import egabank.api.devoir.dto.StatJourDTO;
+import egabank.api.devoir.dto.TableauDeBordDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.exception.SoldeInsuffisantException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class StatistiquesServiceTest {
+
+    @Autowired
+    private StatistiquesService statistiques;
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Compte nouveauCompte(String type, int solde) {
+        Compte compte = new Compte();
+        compte.setTypeCompte(type);
+        compte.setSolde(solde);
+        return compteService.saveCompte(compte);
+    }
+
+    private long depotsDuJour(TableauDeBordDTO dto) {
+        return dto.getActiviteParJour().stream()
+            .filter(s -> s.getJour().equals(LocalDate.now()) && s.getType().equals("DEPOT"))
+            .mapToLong(StatJourDTO::getNombre).sum();
+    }
+
+    @Test
+    void agregatsSuiventLesEcrituresEtLaReconstruction() {
+        // Point de départ aligné sur la base (d'autres tests écrivent sans passer par les services)
+        statistiques.reconstruire();
+        TableauDeBordDTO avant = statistiques.tableauDeBord(1);
+
+        Compte epargne = nouveauCompte("EPARGNE", 100);
+        Compte courant = nouveauCompte("COURANT", 0);
+        compteService.deposer(epargne.getId(), 50, "ESPECES");
+        compteService.retirer(epargne.getId(), 20);
+        compteService.transferer(epargne.getId(), 30, courant.getId());
+        assertThrows(SoldeInsuffisantException.class, () -> compteService.retirer(courant.getId(), 1_000));
+        compteService.traiterLot(List.of(new OperationLotDTO("DEPOT", courant.getId(), 5, "ESPECES")));
+
+        TableauDeBordDTO apres = statistiques.tableauDeBord(1);
+        assertEquals(avant.getNombreComptes() + 2, apres.getNombreComptes());
+        assertEquals(avant.getComptesEpargne() + 1, apres.getComptesEpargne());
+        assertEquals(avant.getSoldeTotal() + 100 + 50 - 20 + 5, apres.getSoldeTotal());
+        // dépôt, retrait, virement, dépôt du lot ; le retrait refusé n'est pas compté
+        assertEquals(avant.getNombreTransactions() + 4, apres.getNombreTransactions());
+        assertEquals(avant.getTotalDepots() + 55, apres.getTotalDepots());
+        assertEquals(avant.getTotalRetraits() + 20, apres.getTotalRetraits());
+        assertEquals(avant.getTotalVirements() + 30, apres.getTotalVirements());
+        assertEquals(depotsDuJour(avant) + 2, depotsDuJour(apres));
+
+        // deleteCompte parcourt les transactions du compte : session ouverte comme dans une requête HTTP
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> compteService.deleteCompte(courant.getId()));
+        TableauDeBordDTO supprime = statistiques.tableauDeBord(1);
+        assertEquals(avant.getNombreComptes() + 1, supprime.getNombreComptes());
+        assertEquals(avant.getSoldeTotal() + 100 + 50 - 20 - 30, supprime.getSoldeTotal());
+
+        statistiques.reconstruire();
+        assertEquals(supprime, statistiques.tableauDeBord(1));
+    }
+}
@@ -0,0 +1,137 @@
+package egabank.api.devoir.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Export en flux sur plusieurs lots d'export (5 000 lignes par défaut). Gros volume :
+ * mvn test -Dtest=TransactionExportServiceTest -Dexport.transactions=1000000 -DargLine=-Xmx1g
+ * H2 en mémoire garde les lignes dans le même tas : -Xmx doit couvrir le jeu de données, l'export n'y ajoute
+ * qu'un lot d'entités (vérifié par le nombre d'entités gérées, indépendant du volume).
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionExportServiceTest {
+
+    private static final long ID_BASE = 2_000_000_000L;
+    private static final int COMPTES = 20;
+    private static final int TRANSACTIONS = Integer.getInteger("export.transactions", 5_000);
+
+    @Autowired
+    private TransactionExportService exportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> comptes = new ArrayList<>();
+        for (int c = 0; c < COMPTES; c++) {
+            comptes.add(new Object[] {ID_BASE + c, "EXPORT" + c});
+        }
+        jdbcTemplate.batchUpdate("insert into compte (id, numero_compte, type_compte, solde) values (?, ?, 'COURANT', 0)", comptes);
+
+        LocalDateTime origine = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> lot = new ArrayList<>(10_000);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            lot.add(new Object[] {ID_BASE + i, ID_BASE + i % COMPTES, "EXPORT" + i % COMPTES,
+                Timestamp.valueOf(origine.plusMinutes(i)), i % 7 == 0 ? "Salaire, \"prime\"" : "ESPECES"});
+            if (lot.size() == 10_000) {
+                insererTransactions(lot);
+                lot.clear();
+            }
+        }
+        insererTransactions(lot);
+    }
+
+    private void insererTransactions(List<Object[]> lot) {
+        jdbcTemplate.batchUpdate("insert into transaction (id, compte_id, numero_compte, date_transaction, type, montant, origine_fonds) "
+            + "values (?, ?, ?, ?, 'DEPOT', 100, ?)", lot);
+    }
+
+    @AfterAll
+    void nettoyer() {
+        // Par tranches : une seule suppression de plusieurs millions de lignes garderait tout en mémoire jusqu'au commit
+        for (long debut = ID_BASE; debut < ID_BASE + TRANSACTIONS; debut += 50_000) {
+            jdbcTemplate.update("delete from transaction where id >= ? and id < ?", debut, debut + 50_000);
+        }
+        jdbcTemplate.update("delete from compte where id >= ?", ID_BASE);
+    }
+
+    @Test
+    void exportCompletSansAccumulerLesEntites() {
+        long attendu = jdbcTemplate.queryForObject("select count(*) from transaction", Long.class);
+        CompteurSortie sortie = new CompteurSortie();
+
+        long exportees = exportService.exporter("ndjson", null, sortie);
+
+        assertTrue(exportees > 4 * TransactionExportService.LOT_EXPORT);
+        assertEquals(attendu, exportees);
+        assertEquals(attendu, sortie.lignes);
+        // Le contexte de persistance ne dépasse jamais un lot (plus les comptes et clients associés)
+        assertTrue(sortie.entitesMax <= TransactionExportService.LOT_EXPORT + 2 * COMPTES + 100,
+            "entités gérées : " + sortie.entitesMax);
+    }
+
+    @Test
+    void exportCsvParCompteEchappeLesChamps() {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        long exportees = exportService.exporter("CSV", ID_BASE, sortie);
+
+        String[] lignes = sortie.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(TRANSACTIONS / COMPTES, exportees);
+        assertEquals(exportees + 1, lignes.length);
+        assertTrue(lignes[0].startsWith("id,dateTransaction,type,montant"));
+        // id = ID_BASE : i = 0, donc origine de fonds contenant virgule et guillemets
+        assertEquals(ID_BASE + ",2024-01-01T00:00,DEPOT,100,,,\"Salaire, \"\"prime\"\"\",EXPORT0,,", lignes[1]);
+    }
+
+    @Test
+    void formatInconnuRefuse() {
+        assertThrows(IllegalArgumentException.class, () -> exportService.exporter("xml", null, OutputStream.nullOutputStream()));
+    }
+
+    // Sortie qui ne garde rien : compte les lignes et observe le contexte de persistance pendant l'écriture
+    private class CompteurSortie extends OutputStream {
+        long lignes;
+        int entitesMax;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lignes++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lignes++;
+                }
+            }
+            int entites = entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+            entitesMax = Math.max(entitesMax, entites);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package egabank.api.devoir.service;
+
+import egabank.api.devoir.dto.PageTransactionsDTO;
+import egabank.api.devoir.entity.Compte;
+import egabank.api.devoir.entity.Transaction;
+import egabank.api.devoir.repository.CompteRepository;
+import egabank.api.devoir.repository.Comptes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TransactionServiceTest {
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CompteService compteService;
+    @Autowired
+    private CompteRepository compteRepository;
+
+    @Test
+    void parcoursParCurseurSansDoublonNiTrou() {
+        Compte compte = Comptes.nouveau(compteRepository, 1000);
+        for (int i = 0; i < 5; i++) {
+            compteService.deposer(compte.getId(), 10, "ESPECES");
+            compteService.retirer(compte.getId(), 1);
+        }
+
+        List<Transaction> vues = new ArrayList<>();
+        String curseur = null;
+        int pages = 0;
+        do {
+            PageTransactionsDTO page = transactionService.listerPage(curseur, 3, null, compte.getId());
+            vues.addAll(page.getTransactions());
+            curseur = page.getCurseurSuivant();
+            pages++;
+        } while (curseur != null);
+
+        assertEquals(4, pages);
+        assertEquals(10, vues.size());
+        assertEquals(10, new HashSet<>(vues.stream().map(Transaction::getId).toList()).size());
+        for (int i = 1; i < vues.size(); i++) {
+            assertTrue(!vues.get(i).getDateTransaction().isAfter(vues.get(i - 1).getDateTransaction()));
+        }
+
+        PageTransactionsDTO retraits = transactionService.listerPage(null, 50, "retrait", compte.getId());
+        assertEquals(5, retraits.getTaille());
+        assertNull(retraits.getCurseurSuivant());
+    }
+
+    @Test
+    void historiqueCompteFiltreParPeriode() {
+        Compte compte = Comptes.nouveau(compteRepository, 1000);
+        compteService.deposer(compte.getId(), 10, "ESPECES");
+        compteService.retirer(compte.getId(), 5);
+
+        LocalDate aujourdhui = LocalDate.now();
+        assertEquals(2, transactionService.listerPageCompte(compte.getId(), null, 10, null, aujourdhui, aujourdhui).getTaille());
+        assertEquals(1, transactionService.listerPageCompte(compte.getId(), null, 10, "DEPOT", null, aujourdhui).getTaille());
+        assertEquals(0, transactionService.listerPageCompte(compte.getId(), null, 10, null,
+            aujourdhui.plusDays(1), aujourdhui.plusDays(2)).getTaille());
+        assertEquals(0, transactionService.listerPageCompte(compte.getId(), null, 10, null,
+            aujourdhui.minusDays(2), aujourdhui.minusDays(1)).getTaille());
+        assertThrows(NoSuchElementException.class,
+            () -> transactionService.listerPageCompte(-1L, null, 10, null, null, null));
+    }
+
+    @Test
+    void curseurInvalideRefuse() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.listerPage("pas-un-curseur", 10, null, null));
+    }
+}
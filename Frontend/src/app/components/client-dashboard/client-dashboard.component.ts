@@ -93,23 +93,16 @@ export class ClientDashboardComponent implements OnInit {
 
   private setCompteAndLoadTransactions(compte: Compte): void {
     this.compte.set(compte);
-      
-    this.transactionService.getTransactions().subscribe(allTransactions => {
-      const clientTransactions = allTransactions.filter((t: Transaction) => 
-        (t.numeroCompte === compte.numeroCompte && t.type !== 'VIREMENT_RECU') ||
-        (t.compteDestination === compte.numeroCompte && t.type === 'VIREMENT')
-      );
-      
-      this.transactions.set(
-        clientTransactions
-          .sort((a, b) => new Date(b.dateTransaction).getTime() - new Date(a.dateTransaction).getTime())
-          .slice(0, 10)
-      );
+    if (!compte.id) return;
+
+    // Les 10 dernières opérations du compte, triées par le serveur
+    this.transactionService.getTransactionsCompte(compte.id, { limite: 10 }).subscribe(page => {
+      this.transactions.set(page.transactions);
     });
   }
 
   getTransactionSign(transaction: Transaction): string {
-    if (transaction.type === 'DEPOT') return '+';
+    if (transaction.type === 'DEPOT' || transaction.type === 'VIREMENT_RECU') return '+';
     if (transaction.type === 'RETRAIT') return '-';
     if (transaction.type === 'VIREMENT') {
        // If I am the sender -> Debit (-), If I am the receiver -> Credit (+)
@@ -119,7 +112,7 @@ export class ClientDashboardComponent implements OnInit {
   }
 
   getTransactionClass(transaction: Transaction): string {
-    if (transaction.type === 'DEPOT') return 'credit';
+    if (transaction.type === 'DEPOT' || transaction.type === 'VIREMENT_RECU') return 'credit';
     if (transaction.type === 'RETRAIT') return 'debit';
     if (transaction.type === 'VIREMENT') {
       // If I am the sender -> Debit, If I am the receiver -> Credit
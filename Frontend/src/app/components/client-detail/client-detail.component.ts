@@ -22,6 +22,7 @@ export class ClientDetailComponent implements OnInit, OnDestroy {
   client: Client | null = null;
   comptes: Compte[] = [];
   transactions: Transaction[] = [];
+  curseurSuivant: string | null = null;
   selectedCompte: Compte | null = null;
   showDeleteModal = false;
   showDeleteCompteModal = false;
@@ -125,11 +126,27 @@ export class ClientDetailComponent implements OnInit, OnDestroy {
   // loadClient et loadComptes ne sont plus nécessaires sous cette forme, mais on garde la structure propre
   // On supprime les anciennes méthodes pour éviter la confusion
 
+  // Historique du compte paginé par le serveur : les pages plus anciennes sont ajoutées à la demande
   selectCompte(compte: Compte): void {
     this.selectedCompte = compte;
+    this.transactions = [];
+    this.curseurSuivant = null;
+    this.chargerTransactions(compte);
+  }
+
+  chargerPlusDeTransactions(): void {
+    if (this.selectedCompte && this.curseurSuivant) {
+      this.chargerTransactions(this.selectedCompte, this.curseurSuivant);
+    }
+  }
+
+  private chargerTransactions(compte: Compte, curseur?: string): void {
+    if (!compte.id) return;
     this.subscriptions.add(
-      this.transactionService.getTransactionsByCompte(compte.numeroCompte).subscribe(txns => {
-        this.transactions = txns;
+      this.transactionService.getTransactionsCompte(compte.id, { curseur, limite: 50 }).subscribe(page => {
+        if (this.selectedCompte !== compte) return;
+        this.transactions = [...this.transactions, ...page.transactions];
+        this.curseurSuivant = page.curseurSuivant;
       })
     );
   }
@@ -22,6 +22,10 @@ export class ClientHistoriqueComponent implements OnInit {
   dateDebut = signal<string>('');
   dateFin = signal<string>('');
   filterType = signal<string>('');
+  // Curseur de la page suivante, null quand tout l'historique filtré est affiché
+  curseurSuivant = signal<string | null>(null);
+  private compteId?: number;
+  private derniereRequete = 0;
 
   constructor(
     public authService: AuthService,
@@ -33,49 +37,44 @@ export class ClientHistoriqueComponent implements OnInit {
     const user = this.authService.currentUser;
     if (user?.numeroCompte) {
       this.numeroCompte.set(user.numeroCompte);
-      this.loadTransactions();
+      this.compteService.getCompteByNumero(user.numeroCompte).subscribe(compte => {
+        if (compte?.id && compte.id !== this.compteId) {
+          this.compteId = compte.id;
+          this.loadTransactions();
+        }
+      });
     }
   }
 
-  private loadTransactions(): void {
-    this.transactionService.getTransactions().subscribe(allTransactions => {
-      const myTransactions = allTransactions.filter((t: Transaction) => 
-        (t.numeroCompte === this.numeroCompte() && t.type !== 'VIREMENT_RECU') ||
-        (t.compteDestination === this.numeroCompte() && t.type === 'VIREMENT')
-      );
-      
-      // Trier par date décroissante
-      this.transactions.set(
-        myTransactions.sort((a: Transaction, b: Transaction) => 
-          new Date(b.dateTransaction).getTime() - new Date(a.dateTransaction).getTime()
-        )
-      );
-      this.applyFilters();
+  // Filtrage et tri faits par le serveur : seul l'historique du compte est téléchargé, page par page
+  private loadTransactions(curseur?: string): void {
+    if (!this.compteId) return;
+    const requete = ++this.derniereRequete;
+    this.transactionService.getTransactionsCompte(this.compteId, {
+      type: this.filterType(),
+      dateDebut: this.dateDebut(),
+      dateFin: this.dateFin(),
+      curseur,
+      limite: 100
+    }).subscribe(page => {
+      // Réponse d'un filtre déjà remplacé : ignorée
+      if (requete !== this.derniereRequete) return;
+      const transactions = curseur ? [...this.transactions(), ...page.transactions] : page.transactions;
+      this.transactions.set(transactions);
+      this.filteredTransactions.set(transactions);
+      this.curseurSuivant.set(page.curseurSuivant);
     });
   }
 
-  applyFilters(): void {
-    let result = [...this.transactions()];
-
-    // Filtre par type
-    if (this.filterType()) {
-      result = result.filter(t => t.type === this.filterType());
-    }
-
-    // Filtre par date début
-    if (this.dateDebut()) {
-      const debut = new Date(this.dateDebut());
-      result = result.filter(t => new Date(t.dateTransaction) >= debut);
-    }
-
-    // Filtre par date fin
-    if (this.dateFin()) {
-      const fin = new Date(this.dateFin());
-      fin.setHours(23, 59, 59, 999);
-      result = result.filter(t => new Date(t.dateTransaction) <= fin);
+  chargerPlus(): void {
+    const curseur = this.curseurSuivant();
+    if (curseur) {
+      this.loadTransactions(curseur);
     }
+  }
 
-    this.filteredTransactions.set(result);
+  applyFilters(): void {
+    this.loadTransactions();
   }
 
   resetFilters(): void {
@@ -86,7 +85,7 @@ export class ClientHistoriqueComponent implements OnInit {
   }
 
   getTransactionSign(transaction: Transaction): string {
-    if (transaction.type === 'DEPOT') return '+';
+    if (transaction.type === 'DEPOT' || transaction.type === 'VIREMENT_RECU') return '+';
     if (transaction.type === 'RETRAIT') return '-';
     if (transaction.type === 'VIREMENT') {
       // If I am the sender -> Debit (-), If I am the receiver -> Credit (+)
@@ -96,7 +95,7 @@ export class ClientHistoriqueComponent implements OnInit {
   }
 
   getTransactionClass(transaction: Transaction): string {
-    if (transaction.type === 'DEPOT') return 'credit';
+    if (transaction.type === 'DEPOT' || transaction.type === 'VIREMENT_RECU') return 'credit';
     if (transaction.type === 'RETRAIT') return 'debit';
     if (transaction.type === 'VIREMENT') {
        // If I am the sender -> Debit (Red), If I am the receiver -> Credit (Green)
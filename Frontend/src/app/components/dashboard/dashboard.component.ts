@@ -8,6 +8,7 @@ import { ClientService } from '../../services/client.service';
 import { Compte } from '../../models/compte.model';
 import { CompteService } from '../../services/compte.service';
 import { TransactionService } from '../../services/transaction.service';
+import { StatsService } from '../../services/stats.service';
 
 @Component({
   selector: 'app-dashboard',
@@ -34,7 +35,8 @@ export class DashboardComponent implements OnInit, OnDestroy {
   constructor(
     private clientService: ClientService,
     private compteService: CompteService,
-    private transactionService: TransactionService
+    private transactionService: TransactionService,
+    private statsService: StatsService
   ) {}
 
   ngOnInit(): void {
@@ -54,37 +56,28 @@ export class DashboardComponent implements OnInit, OnDestroy {
   loadStats(): void {
     this.subscriptions.add(
       this.clientService.getClients().subscribe(clients => {
-        this.stats.totalClients = clients.length;
         this.recentClients = clients.slice(-5).reverse();
       })
     );
 
+    // Totaux tenus à jour par le serveur à chaque opération
     this.subscriptions.add(
-      this.compteService.getComptesCount().subscribe((counts: any) => {
-        this.stats.totalComptes = counts.total;
-        this.stats.comptesEpargne = counts.epargne;
-        this.stats.comptesCourant = counts.courant;
-      })
-    );
-
-    this.subscriptions.add(
-      this.compteService.getTotalSolde().subscribe((solde: number) => {
-        this.stats.soldeTotal = solde;
-      })
-    );
-
-    this.subscriptions.add(
-      this.transactionService.getTransactions().subscribe(txns => {
-        this.stats.totalTransactions = txns.filter(t => t.type !== 'VIREMENT_RECU').length;
+      this.statsService.getTableauDeBord().subscribe(tableau => {
+        this.stats.totalClients = tableau.nombreClients;
+        this.stats.totalComptes = tableau.nombreComptes;
+        this.stats.comptesEpargne = tableau.comptesEpargne;
+        this.stats.comptesCourant = tableau.comptesCourant;
+        this.stats.soldeTotal = tableau.soldeTotal;
+        this.stats.totalTransactions = tableau.nombreTransactions;
       })
     );
   }
 
   loadRecentData(): void {
     this.subscriptions.add(
-      this.transactionService.getRecentTransactions(10).subscribe(txns => {
+      this.transactionService.getPageTransactions({ limite: 10 }).subscribe(page => {
         // Filter out VIREMENT_RECU (Black Icon) to avoid duplication
-        this.recentTransactions = txns
+        this.recentTransactions = page.transactions
           .filter(t => t.type !== 'VIREMENT_RECU')
           .slice(0, 5);
       })
@@ -18,6 +18,8 @@ export class TransactionListComponent implements OnInit {
   transactions: Transaction[] = [];
   filteredTransactions: Transaction[] = [];
   comptes: Compte[] = [];
+  // Transactions plus anciennes encore sur le serveur : filtres et stats ne portent que sur celles chargées
+  plusDeTransactions = false;
   
   // Filtres
   selectedCompte = '';
@@ -44,6 +46,9 @@ export class TransactionListComponent implements OnInit {
 
   ngOnInit(): void {
     this.loadComptes();
+    this.transactionService.hasPlusDeTransactions().subscribe(plus => {
+      this.plusDeTransactions = plus;
+    });
     
     // Vérifier les query params pour le filtre de compte
     this.route.queryParams.subscribe(params => {
@@ -77,6 +82,10 @@ export class TransactionListComponent implements OnInit {
     }
   }
 
+  chargerPlus(): void {
+    this.transactionService.chargerPlusDeTransactions();
+  }
+
   applyFilters(): void {
     let result = [...this.transactions];
 
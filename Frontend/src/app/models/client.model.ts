@@ -13,6 +13,9 @@ export interface Client {
   courriel: string;
   nationalite: string;
   comptes?: any[];
+  // Présents dans le résumé renvoyé par GET /clients
+  nombreComptes?: number;
+  soldeTotal?: number;
 }
 
 export interface ClientFormData {
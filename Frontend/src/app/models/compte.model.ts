@@ -14,6 +14,9 @@ export interface Compte {
   // Champs ajoutés pour affichage frontend uniquement
   clientNom?: string;
   clientPrenom?: string;
+  // Présents dans le résumé renvoyé par GET /comptes
+  clientId?: number;
+  derniereActivite?: string | null;
 }
 
 export interface CompteFormData {
@@ -0,0 +1,20 @@
+export interface StatJour {
+  jour: string;
+  type: string;
+  nombre: number;
+  somme: number;
+}
+
+// Réponse de GET /stats/dashboard
+export interface TableauDeBord {
+  nombreClients: number;
+  nombreComptes: number;
+  comptesEpargne: number;
+  comptesCourant: number;
+  soldeTotal: number;
+  nombreTransactions: number;
+  totalDepots: number;
+  totalRetraits: number;
+  totalVirements: number;
+  activiteParJour: StatJour[];
+}
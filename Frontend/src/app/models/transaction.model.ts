@@ -26,6 +26,13 @@ export interface Transaction {
   compteDestination?: string;
 }
 
+// Page renvoyée par GET /transactions (pagination par curseur)
+export interface PageTransactions {
+  transactions: Transaction[];
+  curseurSuivant: string | null;
+  taille: number;
+}
+
 export interface TransactionFormData {
   compteId: number;
   type: TypeTransaction;
@@ -62,12 +62,14 @@ export class CompteService {
       map(([baseComptes, clients]) => {
         
         return baseComptes.map(compte => {
+          // Le résumé de compte porte déjà l'id de son titulaire
           const proprietaire = clients.find(c => 
-            c.comptes && c.comptes.some((compteClient: any) => 
+            (compte.clientId != null && String(c.id) === String(compte.clientId)) ||
+            (c.comptes && c.comptes.some((compteClient: any) => 
               // Comparaison souple ID ou Numéro
               String(compteClient.id) === String(compte.id) || 
               compteClient.numeroCompte === compte.numeroCompte
-            )
+            ))
           );
 
           if (proprietaire) {
@@ -83,8 +85,8 @@ export class CompteService {
           // Si pas de propriétaire trouvé (cas orphelin ou données incomplètes)
           return {
             ...compte,
-            clientNom: 'Inconnu',
-            clientPrenom: 'Client'
+            clientNom: compte.clientNom || 'Inconnu',
+            clientPrenom: compte.clientPrenom || 'Client'
           };
         });
       })
@@ -78,7 +78,8 @@ export class ReleveService {
 
   // Génération du relevé pour un compte donné
   private generateReleveForCompte(compte: any, dateDebut: string, dateFin: string): Observable<ReleveData> {
-    return this.transactionService.getTransactionsByCompte(compte.numeroCompte).pipe(
+    // Toutes les transactions de la période, page après page : pas seulement celles déjà chargées
+    return this.transactionService.getToutesTransactionsCompte(compte.id, { dateDebut, dateFin }).pipe(
       map(allTransactions => {
         const debut = new Date(dateDebut);
         const fin = new Date(dateFin);
@@ -0,0 +1,18 @@
+import { Injectable, inject } from '@angular/core';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { Observable } from 'rxjs';
+import { TableauDeBord } from '../models/stats.model';
+
+@Injectable({
+  providedIn: 'root'
+})
+export class StatsService {
+  private http = inject(HttpClient);
+  private apiUrl = 'http://localhost:8081/stats/dashboard';
+
+  // Agrégats calculés côté serveur : aucune transaction à télécharger
+  getTableauDeBord(jours?: number): Observable<TableauDeBord> {
+    const params = jours ? new HttpParams().set('jours', String(jours)) : undefined;
+    return this.http.get<TableauDeBord>(this.apiUrl, { params });
+  }
+}
@@ -1,8 +1,8 @@
 import { Injectable, PLATFORM_ID, inject } from '@angular/core';
 import { isPlatformBrowser } from '@angular/common';
-import { HttpClient } from '@angular/common/http';
-import { BehaviorSubject, Observable, map, catchError, of, tap, switchMap, forkJoin } from 'rxjs';
-import { Transaction, TransactionFormData, TypeTransaction, DeposerRetirerRequest, TransfererRequest } from '../models/transaction.model';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { BehaviorSubject, Observable, EMPTY, map, catchError, of, tap, switchMap, forkJoin, expand, reduce } from 'rxjs';
+import { Transaction, PageTransactions, TransactionFormData, TypeTransaction, DeposerRetirerRequest, TransfererRequest } from '../models/transaction.model';
 import { CompteService } from './compte.service';
 import { Compte } from '../models/compte.model';
 
@@ -11,6 +11,8 @@ import { Compte } from '../models/compte.model';
 })
 export class TransactionService {
   private transactions$ = new BehaviorSubject<Transaction[]>([]);
+  // Curseur de la page suivante : null quand toutes les transactions sont chargées
+  private curseurSuivant$ = new BehaviorSubject<string | null>(null);
   private platformId = inject(PLATFORM_ID);
   private http = inject(HttpClient);
   private apiUrl = 'http://localhost:8081/comptes';
@@ -22,16 +24,63 @@ export class TransactionService {
   }
 
   private loadTransactions(): void {
-    // Charger TOUTES les transactions depuis le nouvel endpoint
-    this.http.get<Transaction[]>('http://localhost:8081/transactions').subscribe({
-      next: (transactions) => {
-        // Enrichir les données si nécessaire, mais le backend envoie maintenant numeroCompte et nomClient
-        this.transactions$.next(transactions);
+    // Première page seulement : les suivantes sont chargées à la demande (chargerPlusDeTransactions)
+    this.getPageTransactions({ limite: 500 }).subscribe({
+      next: (page) => {
+        this.transactions$.next(page.transactions);
+        this.curseurSuivant$.next(page.curseurSuivant);
       },
       error: (err) => console.error('Erreur chargement transactions', err)
     });
   }
 
+  // Ajoute la page suivante aux transactions déjà chargées
+  chargerPlusDeTransactions(): void {
+    const curseur = this.curseurSuivant$.value;
+    if (!curseur) return;
+    this.getPageTransactions({ curseur, limite: 500 }).subscribe({
+      next: (page) => {
+        this.transactions$.next([...this.transactions$.value, ...page.transactions]);
+        this.curseurSuivant$.next(page.curseurSuivant);
+      },
+      error: (err) => console.error('Erreur chargement transactions', err)
+    });
+  }
+
+  // Vrai tant que des transactions plus anciennes restent à charger
+  hasPlusDeTransactions(): Observable<boolean> {
+    return this.curseurSuivant$.pipe(map(curseur => curseur !== null));
+  }
+
+  getPageTransactions(filtres: { curseur?: string; limite?: number; type?: string; compteId?: number } = {}): Observable<PageTransactions> {
+    return this.http.get<PageTransactions>('http://localhost:8081/transactions', { params: this.toParams(filtres) });
+  }
+
+  // Historique d'un compte filtré côté serveur (type, période incluse, pagination par curseur)
+  getTransactionsCompte(compteId: number, filtres: { type?: string; dateDebut?: string; dateFin?: string; curseur?: string; limite?: number } = {}): Observable<PageTransactions> {
+    return this.http.get<PageTransactions>(`${this.apiUrl}/${compteId}/transactions`, { params: this.toParams(filtres) });
+  }
+
+  // Toutes les pages de l'historique d'un compte (relevé) : suit les curseurs jusqu'au dernier
+  getToutesTransactionsCompte(compteId: number, filtres: { type?: string; dateDebut?: string; dateFin?: string } = {}): Observable<Transaction[]> {
+    return this.getTransactionsCompte(compteId, { ...filtres, limite: 500 }).pipe(
+      expand(page => page.curseurSuivant
+        ? this.getTransactionsCompte(compteId, { ...filtres, curseur: page.curseurSuivant, limite: 500 })
+        : EMPTY),
+      reduce((toutes: Transaction[], page) => toutes.concat(page.transactions), [])
+    );
+  }
+
+  private toParams(filtres: { [cle: string]: string | number | undefined | null }): HttpParams {
+    let params = new HttpParams();
+    Object.entries(filtres).forEach(([cle, valeur]) => {
+      if (valeur !== undefined && valeur !== null && valeur !== '') {
+        params = params.set(cle, String(valeur));
+      }
+    });
+    return params;
+  }
+
   refreshTransactions(): void {
     this.loadTransactions();
   }
@@ -65,10 +114,15 @@ export class TransactionService {
     );
   }
 
+  // Une clé par opération : le backend ne rejoue pas une écriture déjà appliquée
+  private idempotencyHeaders(): { [header: string]: string } {
+    return { 'Idempotency-Key': crypto.randomUUID() };
+  }
+
   // Méthode pour effectuer un dépôt
   deposer(compteId: number, montant: number, origineFonds: string): Observable<{ success: boolean; message: string }> {
     const body: DeposerRetirerRequest = { montant, origineFonds };
-    return this.http.post(`${this.apiUrl}/${compteId}/deposer`, body).pipe(
+    return this.http.post(`${this.apiUrl}/${compteId}/deposer`, body, { headers: this.idempotencyHeaders() }).pipe(
       tap(() => {
         this.compteService.refreshComptes();
         this.refreshTransactions();
@@ -84,7 +138,7 @@ export class TransactionService {
   // Méthode pour effectuer un retrait
   retirer(compteId: number, montant: number): Observable<{ success: boolean; message: string }> {
     const body: DeposerRetirerRequest = { montant };
-    return this.http.post(`${this.apiUrl}/${compteId}/retirer`, body).pipe(
+    return this.http.post(`${this.apiUrl}/${compteId}/retirer`, body, { headers: this.idempotencyHeaders() }).pipe(
       tap(() => {
         this.compteService.refreshComptes();
         this.refreshTransactions();
@@ -100,7 +154,7 @@ export class TransactionService {
   // Méthode pour effectuer un virement
   transferer(compteSourceId: number, compteDestId: number, montant: number): Observable<{ success: boolean; message: string }> {
     const body: TransfererRequest = { montant, id: compteDestId };
-    return this.http.post(`${this.apiUrl}/${compteSourceId}/transferer`, body).pipe(
+    return this.http.post(`${this.apiUrl}/${compteSourceId}/transferer`, body, { headers: this.idempotencyHeaders() }).pipe(
       tap(() => {
         this.compteService.refreshComptes();
         this.refreshTransactions();